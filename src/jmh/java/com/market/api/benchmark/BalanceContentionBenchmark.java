@@ -0,0 +1,64 @@
+package com.market.api.benchmark;
+
+import com.market.api.dto.TradeCreateRequest;
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.TradeSide;
+import com.market.api.service.TradeService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent trade creation against the balance locks: every thread trading for the same user
+ * serialises on one stripe, while spreading the trades over many users should scale with the thread count
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class BalanceContentionBenchmark {
+
+    @Param({"1", "8", "1024"})
+    public int users;
+
+    private TradeService tradeService;
+    private ValidatorFactory validatorFactory;
+    private List<UUID> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userIds = BenchmarkData.ids("44444444-aaaa-bbbb-cccc-", users);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        tradeService = BenchmarkData.tradeService("map", validatorFactory.getValidator(), userIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Trader {
+
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public TradeDTO createTrade(Trader trader) {
+        SplittableRandom random = trader.random;
+        return tradeService.createTrade(TradeCreateRequest.builder()
+                .userId(userIds.get(random.nextInt(userIds.size())))
+                .instrumentId(BenchmarkData.INSTRUMENT_IDS.get(random.nextInt(BenchmarkData.INSTRUMENT_IDS.size())))
+                .quantity(1 + random.nextInt(100))
+                .side(random.nextBoolean() ? TradeSide.BUY : TradeSide.SELL)
+                .build());
+    }
+}
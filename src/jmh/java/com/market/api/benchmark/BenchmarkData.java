@@ -0,0 +1,158 @@
+package com.market.api.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.market.api.dto.TradeCreateRequest;
+import com.market.api.mapper.PositionMapperImpl;
+import com.market.api.mapper.TradeMapperImpl;
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import com.market.api.model.User;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.PersistenceProperties;
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.ColumnarTradeRepository;
+import com.market.api.repository.InstrumentRepository;
+import com.market.api.repository.MapTradeRepository;
+import com.market.api.repository.PositionRepository;
+import com.market.api.repository.RepositoryInitializer;
+import com.market.api.repository.TradeRepository;
+import com.market.api.repository.UserRepository;
+import com.market.api.service.StreamProperties;
+import com.market.api.service.TradeService;
+import com.market.api.service.TradeTapeService;
+import jakarta.validation.Validator;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Shared fixtures for the benchmarks: repositories wired without Spring and deterministic trade data
+ * referencing the bundled mock users and instruments
+ */
+final class BenchmarkData {
+
+    static final List<UUID> USER_IDS = ids("22222222-aaaa-bbbb-cccc-", 8);
+    // The tenth mock instrument (ERR001) has a negative price, which trade creation rejects
+    static final List<UUID> INSTRUMENT_IDS = ids("11111111-aaaa-bbbb-cccc-", 9);
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    static {
+        // Per-write INFO logging would otherwise dominate the write benchmarks
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Configured like the application's mapper (ISO timestamps)
+     */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Journal with persistence disabled, so writes apply straight to memory
+     */
+    static Journal journal(ObjectMapper objectMapper) {
+        return new Journal(new PersistenceProperties(), objectMapper);
+    }
+
+    static TradeRepository tradeRepository(String store, SeedProperties seedProperties) {
+        ObjectMapper objectMapper = objectMapper();
+        Journal journal = journal(objectMapper);
+        JsonSeedReader seedReader = new JsonSeedReader(objectMapper);
+        return switch (store) {
+            case "map" -> new MapTradeRepository(journal, seedProperties, seedReader);
+            case "columnar" -> new ColumnarTradeRepository(journal, seedProperties, seedReader);
+            default -> throw new IllegalArgumentException("Unknown trade store: " + store);
+        };
+    }
+
+    /**
+     * A trade service over freshly seeded repositories, with every given user (created if missing)
+     * funded well beyond what a benchmark run can spend
+     */
+    static TradeService tradeService(String store, Validator validator, List<UUID> fundedUsers) {
+        ObjectMapper objectMapper = objectMapper();
+        Journal journal = journal(objectMapper);
+        SeedProperties seedProperties = new SeedProperties();
+        JsonSeedReader seedReader = new JsonSeedReader(objectMapper);
+
+        InstrumentRepository instrumentRepository = new InstrumentRepository(journal, seedProperties, seedReader);
+        UserRepository userRepository = new UserRepository(journal, seedProperties, seedReader);
+        TradeRepository tradeRepository = tradeRepository(store, seedProperties);
+        PositionRepository positionRepository = new PositionRepository();
+        RepositoryInitializer initializer = new RepositoryInitializer(seedProperties, new PersistenceProperties(),
+                instrumentRepository, userRepository, tradeRepository, positionRepository, new StandardEnvironment());
+        initializer.initialize();
+
+        for (UUID userId : fundedUsers) {
+            userRepository.restore(User.builder()
+                    .id(userId)
+                    .username("bench-" + userId)
+                    .country("PT")
+                    .balance(new BigDecimal("1e18"))
+                    .build());
+        }
+        // Started, so the tape's publisher drains what trade creation offers it as in the application
+        TradeTapeService tradeTapeService = new TradeTapeService(new StreamProperties());
+        tradeTapeService.start();
+        return new TradeService(tradeRepository, userRepository, instrumentRepository, positionRepository,
+                new TradeMapperImpl(), new PositionMapperImpl(), validator, initializer, tradeTapeService);
+    }
+
+    static List<Trade> trades(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trades.add(trade(random, i));
+        }
+        return trades;
+    }
+
+    /**
+     * The {@code sequence}-th trade of a stream spaced one second apart
+     */
+    static Trade trade(SplittableRandom random, long sequence) {
+        return Trade.builder()
+                .id(new UUID(random.nextLong(), random.nextLong()))
+                .userId(USER_IDS.get(random.nextInt(USER_IDS.size())))
+                .instrumentId(INSTRUMENT_IDS.get(random.nextInt(INSTRUMENT_IDS.size())))
+                .quantity(1 + random.nextInt(1_000))
+                .side(random.nextBoolean() ? TradeSide.BUY : TradeSide.SELL)
+                .timestamp(START.plusSeconds(sequence))
+                .build();
+    }
+
+    static TradeCreateRequest createRequest(SplittableRandom random) {
+        return TradeCreateRequest.builder()
+                .userId(USER_IDS.get(random.nextInt(USER_IDS.size())))
+                .instrumentId(INSTRUMENT_IDS.get(random.nextInt(INSTRUMENT_IDS.size())))
+                .quantity(1 + random.nextInt(1_000))
+                .side(random.nextBoolean() ? TradeSide.BUY : TradeSide.SELL)
+                .build();
+    }
+
+    static List<UUID> ids(String prefix, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ids.add(UUID.fromString(prefix + String.format("%012d", i)));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,84 @@
+package com.market.api.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.market.api.compression.CompressionProperties;
+import com.market.api.compression.ContentCoding;
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.TradeDTO;
+import com.market.api.mapper.TradeMapper;
+import com.market.api.mapper.TradeMapperImpl;
+import com.market.api.model.Trade;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time against bytes saved when compressing {@code GET /api/trades} bodies, per coding and level. Sizes
+ * are not something JMH measures, so each trial prints the body's size before and after compression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"gzip:1", "gzip:6", "gzip:9", "zstd:1", "zstd:3", "zstd:9"})
+    public String coding;
+
+    private ContentCoding contentCoding;
+    private CompressionProperties properties;
+    private byte[] body;
+    private byte[] compressed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] parts = coding.split(":");
+        contentCoding = ContentCoding.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        properties = new CompressionProperties();
+        properties.setGzipLevel(Integer.parseInt(parts[1]));
+        properties.setZstdLevel(Integer.parseInt(parts[1]));
+
+        TradeMapper tradeMapper = new TradeMapperImpl();
+        List<TradeDTO> dtos = new ArrayList<>(size);
+        for (Trade trade : BenchmarkData.trades(size, 42)) {
+            dtos.add(tradeMapper.toDTO(trade));
+        }
+        body = BenchmarkData.objectMapper().writerFor(new TypeReference<ApiResponse<List<TradeDTO>>>() {
+        }).writeValueAsBytes(ApiResponse.success(dtos));
+        compressed = compress(new ByteArrayOutputStream(body.length));
+        System.out.printf("%n%s, %d trades: %,d bytes -> %,d bytes (%.1f%% saved)%n", coding, size,
+                body.length, compressed.length, 100.0 * (body.length - compressed.length) / body.length);
+    }
+
+    @Benchmark
+    public byte[] compress() throws IOException {
+        return compress(new ByteArrayOutputStream(body.length));
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        try (InputStream in = contentCoding.decompress(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes().length;
+        }
+    }
+
+    private byte[] compress(ByteArrayOutputStream sink) throws IOException {
+        try (OutputStream out = contentCoding.compress(sink, properties)) {
+            out.write(body);
+        }
+        return sink.toByteArray();
+    }
+}
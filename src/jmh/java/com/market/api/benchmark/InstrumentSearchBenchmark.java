@@ -0,0 +1,108 @@
+package com.market.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.model.Instrument;
+import com.market.api.model.InstrumentType;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.InstrumentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead search latency over generated instruments, sampled so the report shows percentiles.
+ * Queries are short prefixes (the widest), exact symbols, multi-word name prefixes and misspellings
+ * that only the fuzzy pass finds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InstrumentSearchBenchmark {
+
+    private static final List<String> WORDS = List.of(
+            "global", "energy", "capital", "holdings", "systems", "pharma", "digital", "mining", "bank", "motors",
+            "technologies", "industries", "resources", "networks", "foods", "airlines", "semiconductor", "insurance",
+            "realty", "logistics", "biotech", "solar", "media", "retail", "partners", "trust", "group", "labs",
+            "option", "call", "put", "future", "index", "bond", "treasury", "gold", "silver", "copper", "coin", "token");
+
+    @Param({"100000"})
+    public int instruments;
+
+    private InstrumentRepository repository;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        repository = new InstrumentRepository(BenchmarkData.journal(objectMapper), new SeedProperties(),
+                new JsonSeedReader(objectMapper));
+
+        SplittableRandom random = new SplittableRandom(42);
+        InstrumentType[] types = InstrumentType.values();
+        String[] symbols = new String[instruments];
+        String[] names = new String[instruments];
+        for (int i = 0; i < instruments; i++) {
+            symbols[i] = symbol(random, i);
+            names[i] = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()))
+                    + " " + WORDS.get(random.nextInt(WORDS.size()));
+            repository.restore(Instrument.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .name(names[i])
+                    .type(types[random.nextInt(types.length)])
+                    .symbol(symbols[i])
+                    .price(BigDecimal.valueOf(1 + random.nextInt(100_000), 2))
+                    .build());
+        }
+
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            int target = random.nextInt(instruments);
+            String[] words = names[target].split(" ");
+            queries[i] = switch (i % 4) {
+                case 0 -> symbols[target].substring(0, 1 + random.nextInt(2));
+                case 1 -> symbols[target].toLowerCase(Locale.ROOT);
+                case 2 -> words[0] + " " + words[1].substring(0, Math.min(3, words[1].length()));
+                default -> misspell(words[2], random);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+    }
+
+    @Benchmark
+    public List<Instrument> search(Cursor cursor) {
+        String query = queries[cursor.next++ & (queries.length - 1)];
+        return repository.search(query, 10);
+    }
+
+    private static String symbol(SplittableRandom random, int sequence) {
+        StringBuilder symbol = new StringBuilder();
+        int letters = 3 + random.nextInt(3);
+        for (int i = 0; i < letters; i++) {
+            symbol.append((char) ('A' + random.nextInt(26)));
+        }
+        // Unique, as the symbol index requires
+        return symbol.append(sequence).toString();
+    }
+
+    /**
+     * Drops one character past the first, as a hurried typist would
+     */
+    private static String misspell(String word, SplittableRandom random) {
+        int at = 1 + random.nextInt(word.length() - 1);
+        return word.substring(0, at) + word.substring(at + 1);
+    }
+}
@@ -0,0 +1,194 @@
+package com.market.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.dto.TradeCreateRequest;
+import com.market.api.model.TradeSide;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of {@code POST /api/trades} and {@code GET /api/trades/{id}} against a running
+ * application, for comparing request handling on virtual threads with Tomcat's platform thread pool. Each
+ * connection repeatedly creates a trade and reads it back, so the server has as many requests in flight as
+ * there are connections. Server-side latency percentiles are not something JMH measures over HTTP, so this is
+ * a plain main class run through the benchmarks profile:
+ * {@code mvn -Pbenchmarks compile exec:exec -Dbenchmark.main=com.market.api.benchmark.TradeLoadTest
+ * -Djmh.args="http://localhost:8080 10000 60 10"} (base URL, connections, measured seconds, warm-up seconds).
+ * <p>
+ * Trades are SELLs, which credit the balance, so no request fails for lack of funds however long it runs.
+ */
+public final class TradeLoadTest {
+
+    // One client per this many connections; each client does its I/O on a single selector thread
+    private static final int CONNECTIONS_PER_CLIENT = 1_000;
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = BenchmarkData.objectMapper();
+    private final Stats creates = new Stats();
+    private final Stats lookups = new Stats();
+    private volatile boolean measuring;
+    private volatile boolean stopping;
+
+    private TradeLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        new TradeLoadTest(baseUrl).run(connections, seconds, warmupSeconds);
+    }
+
+    private void run(int connections, int seconds, int warmupSeconds) throws InterruptedException {
+        List<HttpClient> clients = new ArrayList<>();
+        for (int i = 0; i < connections; i += CONNECTIONS_PER_CLIENT) {
+            clients.add(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build());
+        }
+        System.out.printf("%,d connections against %s: %ds warm-up, %ds measured%n", connections, baseUrl,
+                warmupSeconds, seconds);
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            new Connection(clients.get(i / CONNECTIONS_PER_CLIENT), new SplittableRandom(i), done).next();
+            loops.add(done);
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        measuring = true;
+        long started = System.nanoTime();
+        TimeUnit.SECONDS.sleep(seconds);
+        measuring = false;
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        stopping = true;
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).orTimeout(60, TimeUnit.SECONDS).exceptionally(e -> null).join();
+
+        creates.print("POST /api/trades", elapsed);
+        lookups.print("GET /api/trades/{id}", elapsed);
+    }
+
+    /**
+     * One connection's loop: create a trade, read it back, repeat until stopped
+     */
+    private final class Connection {
+
+        private final HttpClient client;
+        private final SplittableRandom random;
+        private final CompletableFuture<Void> done;
+
+        Connection(HttpClient client, SplittableRandom random, CompletableFuture<Void> done) {
+            this.client = client;
+            this.random = random;
+            this.done = done;
+        }
+
+        void next() {
+            if (stopping) {
+                done.complete(null);
+                return;
+            }
+            long started = System.nanoTime();
+            client.sendAsync(createRequest(), HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                String id = creates.record(started, response, error, 201) ? tradeId(response.body()) : null;
+                if (id == null) {
+                    next();
+                    return;
+                }
+                long lookupStarted = System.nanoTime();
+                HttpRequest lookup = HttpRequest.newBuilder(URI.create(baseUrl + "/api/trades/" + id)).GET().build();
+                client.sendAsync(lookup, HttpResponse.BodyHandlers.discarding()).whenComplete((lookupResponse, lookupError) -> {
+                    lookups.record(lookupStarted, lookupResponse, lookupError, 200);
+                    next();
+                });
+            });
+        }
+
+        private HttpRequest createRequest() {
+            TradeCreateRequest trade = BenchmarkData.createRequest(random);
+            trade.setSide(TradeSide.SELL);
+            try {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/trades"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(trade)))
+                        .build();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String tradeId(String body) {
+            try {
+                return objectMapper.readTree(body).path("data").path("id").asText(null);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Request count, failures and a latency histogram with buckets 5% apart, from a microsecond to over an hour
+     */
+    private final class Stats {
+
+        private static final double BUCKET_GROWTH = Math.log(1.05);
+        private static final int BUCKETS = 500;
+
+        private final LongAdder failures = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Records a completed request; true if it got the expected status
+         */
+        boolean record(long started, HttpResponse<?> response, Throwable error, int expectedStatus) {
+            boolean succeeded = error == null && response.statusCode() == expectedStatus;
+            if (measuring) {
+                if (succeeded) {
+                    long micros = Math.max(1, (System.nanoTime() - started) / 1_000);
+                    histogram.incrementAndGet(Math.min(BUCKETS - 1, (int) (Math.log(micros) / BUCKET_GROWTH)));
+                    count.increment();
+                } else {
+                    failures.increment();
+                }
+            }
+            return succeeded;
+        }
+
+        void print(String name, double seconds) {
+            long total = count.sum();
+            System.out.printf("%-22s %,10.0f req/s  failed %,d  p50 %s  p90 %s  p99 %s  p99.9 %s%n", name,
+                    total / seconds, failures.sum(), percentile(total, 0.5), percentile(total, 0.9),
+                    percentile(total, 0.99), percentile(total, 0.999));
+        }
+
+        private String percentile(long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += histogram.get(bucket);
+                if (seen >= rank && seen > 0) {
+                    // The bucket's upper bound, so percentiles are never understated
+                    return String.format("%.2fms", Math.exp((bucket + 1) * BUCKET_GROWTH) / 1_000);
+                }
+            }
+            return "-";
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.market.api.benchmark;
+
+import com.market.api.model.Trade;
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.TradeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository hot paths for both trade stores at several dataset sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TradeRepositoryBenchmark {
+
+    @Param({"map", "columnar"})
+    public String store;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TradeRepository repository;
+    private UUID[] ids;
+    private SplittableRandom random;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = BenchmarkData.tradeRepository(store, new SeedProperties());
+        List<Trade> trades = BenchmarkData.trades(size, 42);
+        ids = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            Trade trade = trades.get(i);
+            repository.restore(trade);
+            ids[i] = trade.getId();
+        }
+        random = new SplittableRandom(7);
+        sequence = size;
+    }
+
+    @Benchmark
+    public Trade save() {
+        // The store grows during the measurement, by a small fraction of its size at these iteration counts
+        return repository.save(BenchmarkData.trade(random, sequence++));
+    }
+
+    @Benchmark
+    public Object findById() {
+        return repository.findById(ids[random.nextInt(size)]);
+    }
+
+    @Benchmark
+    public List<Trade> findFirstPage() {
+        return repository.findPage(null, 100);
+    }
+
+    @Benchmark
+    public List<Trade> findPageByUser() {
+        return repository.findPageByUserId(BenchmarkData.USER_IDS.get(random.nextInt(BenchmarkData.USER_IDS.size())), null, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Trade> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void streamAll(Blackhole blackhole) {
+        repository.streamAll().forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,62 @@
+package com.market.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.TradeDTO;
+import com.market.api.mapper.TradeMapper;
+import com.market.api.mapper.TradeMapperImpl;
+import com.market.api.model.Trade;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct entity-to-DTO mapping and Jackson serialization of the list response body
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private final TradeMapper tradeMapper = new TradeMapperImpl();
+    private ObjectWriter writer;
+    private List<Trade> trades;
+    private ApiResponse<List<TradeDTO>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = BenchmarkData.objectMapper().writerFor(new TypeReference<ApiResponse<List<TradeDTO>>>() {
+        });
+        trades = BenchmarkData.trades(size, 42);
+        response = ApiResponse.success(toDTOs());
+    }
+
+    @Benchmark
+    public List<TradeDTO> toDTOs() {
+        List<TradeDTO> dtos = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            dtos.add(tradeMapper.toDTO(trade));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(ApiResponse.success(toDTOs()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.market.api.benchmark;
+
+import com.market.api.dto.TradeBatchItemResult;
+import com.market.api.dto.TradeCreateRequest;
+import com.market.api.dto.TradeDTO;
+import com.market.api.service.TradeService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade creation through the service layer: one at a time versus the batch path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TradeServiceBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"map", "columnar"})
+    public String store;
+
+    private TradeService tradeService;
+    private ValidatorFactory validatorFactory;
+    private List<TradeCreateRequest> batch;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        tradeService = BenchmarkData.tradeService(store, validatorFactory.getValidator(), BenchmarkData.USER_IDS);
+
+        random = new SplittableRandom(42);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkData.createRequest(random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public TradeDTO createTrade() {
+        return tradeService.createTrade(BenchmarkData.createRequest(random));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createTradesOneByOne(Blackhole blackhole) {
+        for (TradeCreateRequest request : batch) {
+            blackhole.consume(tradeService.createTrade(request));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TradeBatchItemResult> createTradesBatch() {
+        return tradeService.createTrades(batch);
+    }
+}
@@ -0,0 +1,101 @@
+package com.market.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.model.Trade;
+import com.market.api.persistence.BinarySnapshotWriter;
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.TradeRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold-start cost of seeding the trade repository from JSON versus the memory-mapped binary snapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TradeStartupBenchmark {
+
+    @Param({"1000000"})
+    public int trades;
+
+    @Param({"map", "columnar"})
+    public String store;
+
+    private Path directory;
+    private Path json;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("trade-startup");
+        json = directory.resolve("trades.json");
+        snapshot = directory.resolve("trades.bin");
+
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        SplittableRandom random = new SplittableRandom(42);
+        try (OutputStream out = Files.newOutputStream(json);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (int i = 0; i < trades; i++) {
+                objectMapper.writeValue(generator, BenchmarkData.trade(random, i));
+            }
+            generator.writeEndArray();
+        }
+
+        // Same seed, so the snapshot holds exactly the trades in the JSON file
+        SplittableRandom source = new SplittableRandom(42);
+        try (BinarySnapshotWriter writer = BinarySnapshotWriter.create(snapshot, 0)) {
+            writer.writeInstruments(Collections.emptyIterator());
+            writer.writeUsers(Collections.emptyIterator());
+            writer.writeTrades(Stream.iterate(0L, i -> i + 1).limit(trades)
+                    .map(i -> BenchmarkData.trade(source, i)).iterator());
+            writer.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public TradeRepository loadJson() {
+        SeedProperties seedProperties = new SeedProperties();
+        seedProperties.setTrades(json.toString());
+        return load(seedProperties);
+    }
+
+    @Benchmark
+    public TradeRepository loadSnapshot() {
+        SeedProperties seedProperties = new SeedProperties();
+        seedProperties.setSnapshot(snapshot.toString());
+        return load(seedProperties);
+    }
+
+    private TradeRepository load(SeedProperties seedProperties) {
+        TradeRepository repository = BenchmarkData.tradeRepository(store, seedProperties);
+        repository.loadData();
+        if (repository.count() != trades) {
+            throw new IllegalStateException("Loaded " + repository.count() + " of " + trades + " trades");
+        }
+        return repository;
+    }
+}
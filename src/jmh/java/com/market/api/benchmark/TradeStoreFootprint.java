@@ -0,0 +1,45 @@
+package com.market.api.benchmark;
+
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.TradeRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the retained heap per trade of a trade store. Heap size is not something JMH measures, so this is a
+ * plain main class run through the same profile:
+ * {@code mvn -Pbenchmarks compile exec:exec -Dbenchmark.main=com.market.api.benchmark.TradeStoreFootprint
+ * -Djmh.args="columnar 10000000"}, with a large enough heap set through {@code JAVA_TOOL_OPTIONS=-Xmx8g}.
+ */
+public final class TradeStoreFootprint {
+
+    private TradeStoreFootprint() {
+    }
+
+    public static void main(String[] args) {
+        String store = args.length > 0 ? args[0] : "columnar";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        long before = usedHeap();
+        TradeRepository repository = BenchmarkData.tradeRepository(store, new SeedProperties());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < count; i++) {
+            // Trades are generated one at a time so only the store's own copy is retained
+            repository.restore(BenchmarkData.trade(random, i));
+        }
+        long after = usedHeap();
+
+        System.out.printf("%s store: %,d trades, %,d bytes retained, %.1f bytes per trade%n",
+                store, repository.count(), after - before, (after - before) / (double) count);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
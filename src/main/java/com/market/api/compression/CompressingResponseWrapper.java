@@ -0,0 +1,293 @@
+package com.market.api.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Response whose body is compressed when its content type is compressible, the client accepts a coding and
+ * the body reaches the size threshold. Until the threshold is reached the body is held back, so a small body
+ * goes out as is with its exact length; from then on it streams through the encoder. A body whose length was
+ * declared up front is decided on at once.
+ * <p>
+ * The declared {@code Content-Length} is held back too, and only passed on if the body goes out uncompressed.
+ * {@link #finish()} must be called once the body is complete.
+ */
+final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private enum State { UNDECIDED, BUFFERING, RAW, COMPRESSING, FINISHED }
+
+    private final ContentCoding coding;
+    private final CompressionProperties properties;
+    private final List<MimeType> mimeTypes;
+    private final long threshold;
+    private State state = State.UNDECIDED;
+    private long contentLength = -1;
+    private FastByteArrayOutputStream buffer;
+    private OutputStream target;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param coding the negotiated coding, or null if the client accepts none
+     */
+    CompressingResponseWrapper(HttpServletResponse response, ContentCoding coding, CompressionProperties properties,
+                               List<MimeType> mimeTypes) {
+        super(response);
+        this.coding = coding;
+        this.properties = properties;
+        this.mimeTypes = mimeTypes;
+        this.threshold = properties.getMinResponseSize().toBytes();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = new BodyStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            String encoding = getCharacterEncoding();
+            ServletOutputStream out = getOutputStream();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            writer = new PrintWriter(new OutputStreamWriter(out, charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        switch (state) {
+            case UNDECIDED, BUFFERING -> contentLength = len;
+            case RAW -> super.setContentLengthLong(len);
+            default -> {
+                // The compressed length is not known until the end; the body goes out chunked
+            }
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        // Flushing a held-back body would commit the response before it is known whether to compress it
+        if (state == State.RAW || state == State.COMPRESSING) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (state == State.BUFFERING) {
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (state == State.BUFFERING || state == State.UNDECIDED) {
+            state = State.UNDECIDED;
+            buffer = null;
+            contentLength = -1;
+        }
+    }
+
+    /**
+     * Writes out whatever is held back and ends the compressed stream; the body cannot be written to afterwards
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        switch (state) {
+            case UNDECIDED -> {
+                // No body, as for HEAD; a declared length still belongs on the response
+                if (contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+            }
+            case BUFFERING -> {
+                contentLength = buffer.size();
+                sendRaw();
+                buffer.writeTo(target);
+            }
+            case COMPRESSING -> target.close();
+            default -> {
+            }
+        }
+        state = State.FINISHED;
+    }
+
+    private void decide() throws IOException {
+        if (!compressible()) {
+            sendRaw();
+            return;
+        }
+        // The body depends on Accept-Encoding whichever way this goes
+        super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (coding == null) {
+            sendRaw();
+        } else if (contentLength >= 0) {
+            if (contentLength >= threshold) {
+                sendCompressed();
+            } else {
+                sendRaw();
+            }
+        } else {
+            state = State.BUFFERING;
+            buffer = new FastByteArrayOutputStream((int) Math.max(256, Math.min(threshold, 8192)));
+        }
+    }
+
+    private boolean compressible() {
+        String contentType = getContentType();
+        if (contentType == null || getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        MimeType type;
+        try {
+            type = MimeTypeUtils.parseMimeType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (MimeType candidate : mimeTypes) {
+            if (candidate.includes(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendRaw() throws IOException {
+        state = State.RAW;
+        if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+        target = super.getOutputStream();
+    }
+
+    private void sendCompressed() throws IOException {
+        state = State.COMPRESSING;
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+        // The compressed bytes are not the same representation, so a strong validator no longer holds for them
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+        target = coding.compress(super.getOutputStream(), properties);
+    }
+
+    private final class BodyStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (state == State.UNDECIDED) {
+                decide();
+            }
+            switch (state) {
+                case BUFFERING -> {
+                    buffer.write(b, off, len);
+                    if (buffer.size() >= threshold) {
+                        sendCompressed();
+                        buffer.writeTo(target);
+                        buffer = null;
+                    }
+                }
+                case RAW, COMPRESSING -> target.write(b, off, len);
+                default -> throw new IOException("Response body already finished");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (state == State.RAW || state == State.COMPRESSING) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Compressed response bodies are written blocking");
+        }
+    }
+}
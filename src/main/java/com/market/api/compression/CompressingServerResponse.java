@@ -0,0 +1,172 @@
+package com.market.api.compression;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Reactive stack response whose body is compressed on the same terms as {@link CompressingResponseWrapper}.
+ * A body written in one piece, as every JSON response is, has its size known up front: a small one goes out as
+ * is and a large one is compressed whole, with its exact length. A body written in pieces is compressed as it
+ * goes, and a streamed one is flushed through the encoder after every piece, so each reaches the client
+ * as soon as it is written. Server-sent events are never compressed.
+ */
+final class CompressingServerResponse extends ServerHttpResponseDecorator {
+
+    private final ContentCoding coding;
+    private final CompressionProperties properties;
+    private final List<MimeType> mimeTypes;
+    private final long threshold;
+
+    /**
+     * @param coding the negotiated coding, or null if the client accepts none
+     */
+    CompressingServerResponse(ServerHttpResponse response, ContentCoding coding, CompressionProperties properties,
+                              List<MimeType> mimeTypes) {
+        super(response);
+        this.coding = coding;
+        this.properties = properties;
+        this.mimeTypes = mimeTypes;
+        this.threshold = properties.getMinResponseSize().toBytes();
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (!negotiated()) {
+            return super.writeWith(body);
+        }
+        if (body instanceof Mono<? extends DataBuffer> single) {
+            return super.writeWith(single.map(buffer -> buffer.readableByteCount() < threshold ? buffer : compressWhole(buffer)));
+        }
+        Encoder encoder = startCompressing();
+        return super.writeWith(Flux.from(body)
+                .map(buffer -> encoder.encode(buffer, false))
+                .concatWith(Mono.fromCallable(encoder::finish))
+                .doFinally(signal -> encoder.close()));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        if (!negotiated()) {
+            return super.writeAndFlushWith(body);
+        }
+        Encoder encoder = startCompressing();
+        return super.writeAndFlushWith(Flux.from(body)
+                .map(piece -> Flux.from(piece).map(buffer -> encoder.encode(buffer, true)))
+                .concatWith(Mono.fromCallable(() -> Flux.just(encoder.finish())))
+                .doFinally(signal -> encoder.close()));
+    }
+
+    /**
+     * True if the body is to be compressed, once large enough
+     */
+    private boolean negotiated() {
+        MediaType contentType = getHeaders().getContentType();
+        if (contentType == null || getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                || mimeTypes.stream().noneMatch(candidate -> candidate.includes(contentType))) {
+            return false;
+        }
+        // The body depends on Accept-Encoding whichever way this goes
+        getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return coding != null;
+    }
+
+    private DataBuffer compressWhole(DataBuffer buffer) {
+        Encoder encoder = startCompressing();
+        encoder.write(buffer);
+        DataBuffer compressed = encoder.finish();
+        getHeaders().setContentLength(compressed.readableByteCount());
+        return compressed;
+    }
+
+    private Encoder startCompressing() {
+        HttpHeaders headers = getHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, coding.token());
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        // The compressed bytes are not the same representation, so a strong validator no longer holds for them
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            headers.setETag("W/" + etag);
+        }
+        return new Encoder();
+    }
+
+    /**
+     * Compresses the pieces of one body into buffers holding whatever the encoder has output so far
+     */
+    private final class Encoder {
+
+        private final FastByteArrayOutputStream compressed = new FastByteArrayOutputStream();
+        private final OutputStream out;
+
+        Encoder() {
+            try {
+                out = coding.compress(compressed, properties);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        DataBuffer encode(DataBuffer buffer, boolean flush) {
+            write(buffer);
+            if (flush) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return drain();
+        }
+
+        /**
+         * Feeds a piece to the encoder and releases it, leaving the output to be drained later
+         */
+        void write(DataBuffer buffer) {
+            try (InputStream in = buffer.asInputStream(true)) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        DataBuffer finish() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        /**
+         * Releases the encoder of a body that was not written to the end
+         */
+        void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Nothing more is written to this body
+            }
+        }
+
+        private DataBuffer drain() {
+            byte[] bytes = compressed.toByteArray();
+            compressed.reset();
+            return bufferFactory().wrap(bytes);
+        }
+    }
+}
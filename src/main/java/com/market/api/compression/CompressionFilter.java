@@ -0,0 +1,116 @@
+package com.market.api.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.dto.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Negotiates response compression from {@code Accept-Encoding} and decompresses request bodies sent with a
+ * {@code Content-Encoding}. Streaming responses finish on the async dispatch that follows them, so the
+ * filter also runs there, as Spring's {@code ShallowEtagHeaderFilter} does.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String IDENTITY = "identity";
+
+    private final CompressionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<MimeType> mimeTypes;
+
+    public CompressionFilter(CompressionProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.mimeTypes = properties.getMimeTypes().stream().map(MimeTypeUtils::parseMimeType).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            finish(request, response);
+            return;
+        }
+
+        HttpServletRequest requestToUse = request;
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (isEncoded(contentEncoding)) {
+            ContentCoding coding = ContentCoding.forToken(contentEncoding);
+            if (coding == null || !properties.getCodings().contains(coding)) {
+                rejectEncoding(response, contentEncoding);
+                return;
+            }
+            requestToUse = new DecompressingRequestWrapper(request, coding, properties.getMaxRequestSize().toBytes());
+        }
+
+        ContentCoding coding = ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), properties.getCodings());
+        HttpServletResponse responseToUse = new CompressingResponseWrapper(response, coding, properties, mimeTypes);
+        filterChain.doFilter(requestToUse, responseToUse);
+        finish(request, responseToUse);
+    }
+
+    private void finish(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // A streaming body is still being written; it is finished on the async dispatch once complete
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        CompressingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.finish();
+        }
+    }
+
+    private void rejectEncoding(HttpServletResponse response, String contentEncoding) throws IOException {
+        String supported = supportedCodings(properties);
+        log.warn("Unsupported request Content-Encoding: {}", contentEncoding);
+        response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+        response.setHeader(HttpHeaders.ACCEPT_ENCODING, supported);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), unsupportedEncoding(contentEncoding, supported));
+    }
+
+    /**
+     * True if a request body with this {@code Content-Encoding} has to be decompressed
+     */
+    static boolean isEncoded(String contentEncoding) {
+        return contentEncoding != null && !contentEncoding.isBlank() && !IDENTITY.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    static String supportedCodings(CompressionProperties properties) {
+        return properties.getCodings().stream().map(ContentCoding::token).collect(Collectors.joining(", "));
+    }
+
+    static ApiResponse<Void> unsupportedEncoding(String contentEncoding, String supported) {
+        return ApiResponse.error("Unsupported Content-Encoding '" + contentEncoding + "'; supported: " + supported);
+    }
+}
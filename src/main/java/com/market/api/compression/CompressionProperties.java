@@ -0,0 +1,53 @@
+package com.market.api.compression;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of HTTP body compression ({@code market.compression.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.compression")
+public class CompressionProperties {
+
+    /**
+     * Whether responses are compressed and compressed request bodies accepted
+     */
+    private boolean enabled = true;
+
+    /**
+     * Smallest response body worth compressing; below it the encoder's overhead outweighs the bytes saved
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    /**
+     * Response content types that are compressed; anything else, including event streams, goes out as is
+     */
+    private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "application/x-ndjson"));
+
+    /**
+     * Codings offered to clients, most preferred first, where the client weighs them equally
+     */
+    private List<ContentCoding> codings = new ArrayList<>(List.of(ContentCoding.ZSTD, ContentCoding.GZIP));
+
+    /**
+     * Deflate level for gzip, from 1 (fastest) to 9 (smallest)
+     */
+    private int gzipLevel = 6;
+
+    /**
+     * Zstandard level, from 1 (fastest) to 19 (smallest)
+     */
+    private int zstdLevel = 3;
+
+    /**
+     * Largest request body accepted once decompressed, so a small upload cannot expand without bound
+     */
+    private DataSize maxRequestSize = DataSize.ofMegabytes(64);
+}
@@ -0,0 +1,79 @@
+package com.market.api.compression;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link CompressionFilter} for the reactive stack: negotiates response compression from {@code Accept-Encoding}
+ * and decompresses request bodies sent with a {@code Content-Encoding}
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CompressionWebFilter implements WebFilter {
+
+    private final CompressionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<MimeType> mimeTypes;
+
+    public CompressionWebFilter(CompressionProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.mimeTypes = properties.getMimeTypes().stream().map(MimeTypeUtils::parseMimeType).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpRequest requestToUse = request;
+        String contentEncoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (CompressionFilter.isEncoded(contentEncoding)) {
+            ContentCoding coding = ContentCoding.forToken(contentEncoding);
+            if (coding == null || !properties.getCodings().contains(coding)) {
+                return rejectEncoding(exchange.getResponse(), contentEncoding);
+            }
+            requestToUse = new DecompressingServerRequest(request, coding, properties.getMaxRequestSize().toBytes());
+        }
+
+        String acceptEncoding = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+        ContentCoding coding = ContentCoding.negotiate(acceptEncoding, properties.getCodings());
+        return chain.filter(exchange.mutate()
+                .request(requestToUse)
+                .response(new CompressingServerResponse(exchange.getResponse(), coding, properties, mimeTypes))
+                .build());
+    }
+
+    private Mono<Void> rejectEncoding(ServerHttpResponse response, String contentEncoding) {
+        String supported = CompressionFilter.supportedCodings(properties);
+        log.warn("Unsupported request Content-Encoding: {}", contentEncoding);
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(CompressionFilter.unsupportedEncoding(contentEncoding, supported));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        response.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, supported);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
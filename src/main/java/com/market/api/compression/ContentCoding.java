@@ -0,0 +1,122 @@
+package com.market.api.compression;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The HTTP content codings bodies can be compressed with
+ */
+public enum ContentCoding {
+
+    ZSTD("zstd") {
+        @Override
+        public OutputStream compress(OutputStream out, CompressionProperties properties) throws IOException {
+            return new ZstdOutputStream(out, properties.getZstdLevel());
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    },
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream out, CompressionProperties properties) throws IOException {
+            int level = properties.getGzipLevel();
+            // Sync flush, so a flushed stream of NDJSON lines reaches the client rather than waiting in the deflater
+            return new GZIPOutputStream(out, BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * The coding's name in {@code Content-Encoding} and {@code Accept-Encoding}
+     */
+    public String token() {
+        return token;
+    }
+
+    public abstract OutputStream compress(OutputStream out, CompressionProperties properties) throws IOException;
+
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * The coding named by a {@code Content-Encoding} value, or null if it is not one of these
+     */
+    public static ContentCoding forToken(String token) {
+        for (ContentCoding coding : values()) {
+            if (coding.token.equalsIgnoreCase(token.trim())) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The coding a response should use for an {@code Accept-Encoding} header: the offered coding with the
+     * highest quality value, ties going to the earlier one in {@code offered}. Null when the client sent no
+     * header or accepts none of them.
+     */
+    public static ContentCoding negotiate(String acceptEncoding, List<ContentCoding> offered) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Map<String, Double> qualities = new HashMap<>();
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    quality = parseQuality(parameter.substring(2));
+                }
+            }
+            qualities.put(parts[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (ContentCoding coding : offered) {
+            double quality = qualities.getOrDefault(coding.token, qualities.getOrDefault("*", 0.0));
+            if (quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double parseQuality(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.market.api.compression;
+
+import com.market.api.service.InvalidRequestException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Request whose body is read decompressed. The {@code Content-Encoding} and {@code Content-Length} of the
+ * compressed body are hidden, as neither describes what the application reads.
+ */
+final class DecompressingRequestWrapper extends HttpServletRequestWrapper {
+
+    private final ContentCoding coding;
+    private final long maxSize;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    DecompressingRequestWrapper(HttpServletRequest request, ContentCoding coding, long maxSize) {
+        super(request);
+        this.coding = coding;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+        if (inputStream == null) {
+            inputStream = new BodyStream();
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return hidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return hidden(name) ? -1 : super.getIntHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        List<String> names = Collections.list(super.getHeaderNames());
+        names.removeIf(DecompressingRequestWrapper::hidden);
+        return Collections.enumeration(names);
+    }
+
+    static InvalidRequestException malformed(ContentCoding coding, IOException cause) {
+        return new InvalidRequestException("Malformed " + coding.token() + " request body: " + cause.getMessage());
+    }
+
+    static InvalidRequestException tooLarge(long maxSize) {
+        return new InvalidRequestException("Request body exceeds " + maxSize + " bytes once decompressed");
+    }
+
+    private static boolean hidden(String name) {
+        return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    /**
+     * The decompressed body, failing the request once it grows past the limit. Corrupt input fails it too,
+     * as a bad request rather than an I/O error.
+     */
+    private final class BodyStream extends ServletInputStream {
+
+        private InputStream decoder;
+        private long read;
+        private boolean finished;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                return -1;
+            }
+            int n;
+            try {
+                if (decoder == null) {
+                    decoder = coding.decompress(getRequest().getInputStream());
+                }
+                n = decoder.read(b, off, len);
+            } catch (IOException e) {
+                throw malformed(coding, e);
+            }
+            if (n == -1) {
+                finished = true;
+                return -1;
+            }
+            read += n;
+            if (read > maxSize) {
+                throw tooLarge(maxSize);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Compressed request bodies are read blocking");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoder != null) {
+                decoder.close();
+            }
+        }
+    }
+}
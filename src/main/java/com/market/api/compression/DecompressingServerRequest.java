@@ -0,0 +1,68 @@
+package com.market.api.compression;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.FastByteArrayOutputStream;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reactive stack request whose body is read decompressed, the counterpart of {@link DecompressingRequestWrapper}.
+ * The compressed body is collected before it is decoded, so it is limited to the decompressed size limit too.
+ */
+final class DecompressingServerRequest extends ServerHttpRequestDecorator {
+
+    private final ContentCoding coding;
+    private final long maxSize;
+    private final HttpHeaders headers;
+
+    DecompressingServerRequest(ServerHttpRequest request, ContentCoding coding, long maxSize) {
+        super(request);
+        this.coding = coding;
+        this.maxSize = maxSize;
+        HttpHeaders visible = new HttpHeaders();
+        visible.putAll(request.getHeaders());
+        visible.remove(HttpHeaders.CONTENT_ENCODING);
+        visible.remove(HttpHeaders.CONTENT_LENGTH);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(visible);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return DataBufferUtils.join(super.getBody(), (int) Math.min(maxSize, Integer.MAX_VALUE))
+                .onErrorMap(DataBufferLimitException.class, e -> DecompressingRequestWrapper.tooLarge(maxSize))
+                .map(this::decompress)
+                .flux();
+    }
+
+    private DataBuffer decompress(DataBuffer compressed) {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        InputStream raw = compressed.asInputStream(true);
+        try (raw; InputStream in = coding.decompress(raw)) {
+            byte[] chunk = new byte[8192];
+            long size = 0;
+            for (int n = in.read(chunk); n != -1; n = in.read(chunk)) {
+                size += n;
+                if (size > maxSize) {
+                    throw DecompressingRequestWrapper.tooLarge(maxSize);
+                }
+                out.write(chunk, 0, n);
+            }
+        } catch (IOException e) {
+            throw DecompressingRequestWrapper.malformed(coding, e);
+        }
+        return DefaultDataBufferFactory.sharedInstance.wrap(out.toByteArrayUnsafe());
+    }
+}
@@ -0,0 +1,57 @@
+package com.market.api.config;
+
+import com.market.api.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.Map;
+
+/**
+ * Maps the reactive stack's own request errors to the responses {@link GlobalExceptionHandler} gives for
+ * their servlet stack counterparts. Ordered first, so these are not taken for unexpected errors.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveExceptionHandler {
+
+    private final GlobalExceptionHandler globalExceptionHandler;
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationErrors(WebExchangeBindException ex) {
+        return globalExceptionHandler.validationFailed(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidInput(ServerWebInputException ex) {
+        MethodParameter parameter = ex.getMethodParameter();
+        if (parameter != null && ex.getCause() instanceof TypeMismatchException mismatch) {
+            return globalExceptionHandler.invalidParameter(parameter.getParameterName(), mismatch.getValue());
+        }
+        if (parameter != null && parameter.hasParameterAnnotation(RequestBody.class)) {
+            return globalExceptionHandler.malformedBody(ex.getMessage());
+        }
+        return handleResponseStatus(ex);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiResponse<Void>> handleResponseStatus(ResponseStatusException ex) {
+        log.error("Request failed with {}: {}", ex.getStatusCode(), ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode())
+                .body(ApiResponse.error(ex.getReason()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.market.api.controller;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the service calls of the reactive controllers that may block, on balance locks or the journal, off the
+ * event loop
+ */
+final class BlockingCalls {
+
+    private BlockingCalls() {
+    }
+
+    /**
+     * The call's result, or error, is handed on to a parallel thread rather than written from the bounded elastic
+     * worker that made it: the worker is interrupted if its task is cancelled, and a write it was making, an error
+     * response included, would be aborted.
+     */
+    static <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(Schedulers.boundedElastic())
+                .publishOn(Schedulers.parallel());
+    }
+}
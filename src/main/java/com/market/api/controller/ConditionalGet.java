@@ -0,0 +1,29 @@
+package com.market.api.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * ETag-validated reads shared by the servlet and reactive controllers. The check is the stack's own
+ * {@code checkNotModified}, which also sets the 304 status when the client's ETag is current.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * The body built for the version, tagged with it, or null when the client already has that version. The
+     * version is read before the data the body is built from, so the ETag is never newer than the body.
+     */
+    static <T> ResponseEntity<T> ifModified(long version, Predicate<String> notModified, LongFunction<T> body) {
+        String etag = Long.toHexString(version);
+        if (notModified.test(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body.apply(version));
+    }
+}
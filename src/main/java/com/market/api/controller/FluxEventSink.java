@@ -0,0 +1,114 @@
+package com.market.api.controller;
+
+import com.market.api.service.EventSink;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * {@link EventSink} feeding a reactive stack stream of server-sent events.
+ * <p>
+ * An event is only sent once the client has asked for more, so, as with a blocking write on the servlet
+ * stack, a client that stops reading holds up the dispatcher thread sending to it instead of piling up
+ * events in memory; the stream services' per-subscriber buffers and lag policies then apply as they do there.
+ */
+final class FluxEventSink implements EventSink {
+
+    private static final long DEMAND_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final FluxSink<ServerSentEvent<Object>> sink;
+    private volatile boolean closed;
+    private volatile Thread waiting;
+    // A sink takes a single dispose callback, so those registered through onClose run from this one
+    private final List<Runnable> closeCallbacks = new ArrayList<>();
+
+    private FluxEventSink(FluxSink<ServerSentEvent<Object>> sink) {
+        this.sink = sink;
+        sink.onRequest(demand -> LockSupport.unpark(waiting));
+        sink.onDispose(this::closed);
+    }
+
+    /**
+     * A stream that, once the client subscribes, hands a sink writing to it to {@code subscribe}, and that
+     * ends after the timeout
+     */
+    static Flux<ServerSentEvent<Object>> open(Duration timeout, Consumer<EventSink> subscribe) {
+        return Flux.<ServerSentEvent<Object>>create(sink -> subscribe.accept(new FluxEventSink(sink)))
+                .take(timeout);
+    }
+
+    @Override
+    public void send(String name, String id, Object data) throws IOException {
+        awaitDemand();
+        sink.next(ServerSentEvent.builder(data).event(name).id(id).build());
+    }
+
+    @Override
+    public void comment(String text) throws IOException {
+        // Buffered rather than waiting, as it is sent from the request thread while subscribing
+        ensureOpen();
+        sink.next(ServerSentEvent.builder().comment(text).build());
+    }
+
+    @Override
+    public void complete() {
+        sink.complete();
+    }
+
+    @Override
+    public void completeWithError(Throwable error) {
+        // A stream the client has already left has nobody to report the error to
+        if (!closed) {
+            sink.error(error);
+        }
+    }
+
+    @Override
+    public void onClose(Runnable callback) {
+        synchronized (closeCallbacks) {
+            if (!closed) {
+                closeCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    private void closed() {
+        List<Runnable> callbacks;
+        synchronized (closeCallbacks) {
+            closed = true;
+            callbacks = List.copyOf(closeCallbacks);
+            closeCallbacks.clear();
+        }
+        LockSupport.unpark(waiting);
+        callbacks.forEach(Runnable::run);
+    }
+
+    private void awaitDemand() throws IOException {
+        while (sink.requestedFromDownstream() == 0) {
+            ensureOpen();
+            waiting = Thread.currentThread();
+            // Re-checked after announcing the wait, so a request in between unparks rather than is missed
+            if (sink.requestedFromDownstream() == 0 && !closed) {
+                LockSupport.parkNanos(this, DEMAND_POLL_NANOS);
+            }
+            waiting = null;
+        }
+        ensureOpen();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Event stream closed");
+        }
+    }
+}
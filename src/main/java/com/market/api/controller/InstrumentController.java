@@ -4,20 +4,32 @@ import com.market.api.dto.ApiResponse;
 import com.market.api.dto.InstrumentCreateRequest;
 import com.market.api.dto.InstrumentDTO;
 import com.market.api.dto.InstrumentUpdateRequest;
+import com.market.api.dto.PriceUpdateDTO;
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.InstrumentType;
 import com.market.api.service.InstrumentService;
+import com.market.api.service.PriceStreamService;
+import com.market.api.service.StreamProperties;
+import com.market.api.service.TradeService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,32 +39,113 @@ import java.util.UUID;
 @RequestMapping("/api/instruments")
 @RequiredArgsConstructor
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Instruments", description = "Financial instruments management API")
 public class InstrumentController {
 
     private final InstrumentService instrumentService;
+    private final InstrumentResponses responses;
+    private final TradeService tradeService;
+    private final PriceStreamService priceStreamService;
+    private final StreamProperties streamProperties;
 
     @GetMapping
-    @Operation(summary = "Get all instruments", description = "Retrieve a list of all available financial instruments")
+    @Operation(summary = "Get instruments", description = "Retrieve the available financial instruments, optionally filtered by type, price range and symbol prefix. "
+            + "'fields' limits each instrument to the listed properties. The ETag changes whenever any instrument does; send it back in If-None-Match to get 304 until then")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved instruments", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved instruments", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "No instrument changed since the ETag in If-None-Match"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid type, price range or field")
     })
-    public ResponseEntity<ApiResponse<List<InstrumentDTO>>> getAllInstruments() {
-        List<InstrumentDTO> instruments = instrumentService.getAllInstruments();
+    public ResponseEntity<byte[]> getAllInstruments(
+            @Parameter(description = "Only instruments of this type") @RequestParam(required = false) InstrumentType type,
+            @Parameter(description = "Inclusive lower bound on the price", example = "100") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Inclusive upper bound on the price", example = "5000") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Case-insensitive symbol prefix", example = "BTC") @RequestParam(required = false) String symbolPrefix,
+            @Parameter(description = "Properties to return, repeated or comma-separated: id, name, type, symbol, price")
+            @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        return responses.instruments(type, minPrice, maxPrice, symbolPrefix, fields, request::checkNotModified);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream instrument prices", description = "Server-sent events: a 'price' event with the current price of every matching instrument, "
+            + "then one per price change. A client that falls behind receives only the latest price of each instrument")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Price stream opened", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = PriceUpdateDTO.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid instrument type")
+    })
+    public SseEmitter streamPrices(
+            @Parameter(description = "Symbols to receive, repeated or comma-separated (default all)") @RequestParam(required = false) List<String> symbol,
+            @Parameter(description = "Instrument type to receive (default all)") @RequestParam(required = false) InstrumentType type) {
+        SseEmitter emitter = new SseEmitter(streamProperties.getPrices().getTimeout().toMillis());
+        priceStreamService.subscribe(symbol, type, new SseEmitterSink(emitter));
+        return emitter;
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search instruments", description = "Type-ahead search over symbols and name words, best match first. "
+            + "Exact matches rank above prefix matches and symbols above names; a word nothing starts with is matched with one or two typos. "
+            + "Every query word must match")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully searched instruments", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Blank query or limit out of range")
+    })
+    public ResponseEntity<ApiResponse<List<InstrumentDTO>>> searchInstruments(
+            @Parameter(description = "What the user has typed so far") @RequestParam String q,
+            @Parameter(description = "Maximum number of results, up to " + InstrumentService.MAX_SEARCH_LIMIT) @RequestParam(defaultValue = "10") int limit) {
+        List<InstrumentDTO> instruments = instrumentService.searchInstruments(q, limit);
         return ResponseEntity.ok(ApiResponse.success(instruments));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get instrument by ID", description = "Retrieve a specific instrument by its UUID")
+    @Operation(summary = "Get instrument by ID", description = "Retrieve a specific instrument by its UUID. "
+            + "The ETag changes whenever the instrument does; send it back in If-None-Match to get 304 until then")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved instrument", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Instrument unchanged since the ETag in If-None-Match"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<byte[]> getInstrumentById(@PathVariable UUID id, WebRequest request) {
+        return responses.instrument(id, request::checkNotModified);
+    }
+
+    @GetMapping("/by-symbol/{symbol}")
+    @Operation(summary = "Get instrument by symbol", description = "Retrieve a specific instrument by its trading symbol (case-insensitive)")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved instrument", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Instrument not found")
     })
-    public ResponseEntity<ApiResponse<InstrumentDTO>> getInstrumentById(@PathVariable UUID id) {
-        InstrumentDTO instrument = instrumentService.getInstrumentById(id);
+    public ResponseEntity<ApiResponse<InstrumentDTO>> getInstrumentBySymbol(@PathVariable String symbol) {
+        InstrumentDTO instrument = instrumentService.getInstrumentBySymbol(symbol);
         return ResponseEntity.ok(ApiResponse.success(instrument));
     }
 
+    @PostMapping("/resolve")
+    @Operation(summary = "Resolve symbols", description = "Map a JSON array of trading symbols (case-insensitive, at most "
+            + InstrumentService.MAX_RESOLVE_SIZE + ") to their instruments, keyed by the symbol as requested. Unknown symbols are left out")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Symbols resolved", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Blank symbol or too many symbols")
+    })
+    public ResponseEntity<ApiResponse<Map<String, InstrumentDTO>>> resolveSymbols(@RequestBody List<String> symbols) {
+        return responses.resolve(symbols);
+    }
+
+    @GetMapping("/{id}/trades")
+    @Operation(summary = "Get trades for an instrument", description = "Retrieve the trades of a specific instrument in time order, one page at a time. "
+            + "The cursor of the next page is returned in the " + TradeController.NEXT_CURSOR_HEADER + " header")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved trades", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<ApiResponse<List<TradeDTO>>> getInstrumentTrades(
+            @PathVariable UUID id,
+            @Parameter(description = "Opaque cursor returned by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        return TradeResponses.page(tradeService.getTradesPageByInstrument(id, after, limit));
+    }
+
     @PostMapping
     @Operation(summary = "Create new instrument", description = "Create a new financial instrument")
     @ApiResponses(value = {
@@ -61,9 +154,7 @@ public class InstrumentController {
     })
     public ResponseEntity<ApiResponse<InstrumentDTO>> createInstrument(
             @Valid @RequestBody InstrumentCreateRequest request) {
-        InstrumentDTO created = instrumentService.createInstrument(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Instrument created successfully", created));
+        return responses.create(request);
     }
 
     @PutMapping("/{id}")
@@ -76,8 +167,7 @@ public class InstrumentController {
     public ResponseEntity<ApiResponse<InstrumentDTO>> updateInstrument(
             @PathVariable UUID id,
             @Valid @RequestBody InstrumentUpdateRequest request) {
-        InstrumentDTO updated = instrumentService.updateInstrument(id, request);
-        return ResponseEntity.ok(ApiResponse.success("Instrument updated successfully", updated));
+        return responses.update(id, request);
     }
 
     @DeleteMapping("/{id}")
@@ -87,7 +177,6 @@ public class InstrumentController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Instrument not found")
     })
     public ResponseEntity<ApiResponse<Void>> deleteInstrument(@PathVariable UUID id) {
-        instrumentService.deleteInstrument(id);
-        return ResponseEntity.ok(ApiResponse.success("Instrument deleted successfully", null));
+        return responses.delete(id);
     }
 }
@@ -0,0 +1,120 @@
+package com.market.api.controller;
+
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.InstrumentCreateRequest;
+import com.market.api.dto.InstrumentDTO;
+import com.market.api.dto.InstrumentUpdateRequest;
+import com.market.api.model.InstrumentType;
+import com.market.api.service.InstrumentResponseCache;
+import com.market.api.service.InstrumentService;
+import com.market.api.service.InvalidRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Instrument responses shared by the servlet and reactive controllers: the cached, ETag-validated reads and
+ * the writes. {@code notModified} is the stack's own {@code checkNotModified}; a null response means 304.
+ */
+@Component
+@RequiredArgsConstructor
+class InstrumentResponses {
+
+    private static final List<String> PROJECTABLE_FIELDS = List.of("id", "name", "type", "symbol", "price");
+
+    private final InstrumentService instrumentService;
+    private final InstrumentResponseCache responseCache;
+
+    ResponseEntity<byte[]> instruments(InstrumentType type, BigDecimal minPrice, BigDecimal maxPrice, String symbolPrefix,
+                                       List<String> fields, Predicate<String> notModified) {
+        // Invalid requests fail whatever the client has cached, so they are checked first
+        instrumentService.validatePriceRange(minPrice, maxPrice);
+        Set<String> requested = fields == null || fields.isEmpty() ? null : requestedFields(fields);
+
+        String view = type + "|" + minPrice + "|" + maxPrice + "|" + symbolPrefix + "|" + (requested == null ? "" : new TreeSet<>(requested));
+        return ConditionalGet.ifModified(instrumentService.getInstrumentsVersion(), notModified,
+                version -> responseCache.collection(view, version, () -> {
+                    List<InstrumentDTO> instruments = instrumentService.getInstruments(type, minPrice, maxPrice, symbolPrefix);
+                    return ApiResponse.success(requested == null ? instruments : project(instruments, requested));
+                }));
+    }
+
+    ResponseEntity<byte[]> instrument(UUID id, Predicate<String> notModified) {
+        return ConditionalGet.ifModified(instrumentService.getInstrumentVersion(id), notModified,
+                version -> responseCache.instrument(id, version, () -> ApiResponse.success(instrumentService.getInstrumentById(id))));
+    }
+
+    ResponseEntity<ApiResponse<Map<String, InstrumentDTO>>> resolve(List<String> symbols) {
+        Map<String, InstrumentDTO> resolved = instrumentService.resolveSymbols(symbols);
+        long unresolved = symbols.stream().filter(symbol -> !resolved.containsKey(symbol)).count();
+        String message = resolved.size() + " resolved, " + unresolved + " unresolved";
+        return ResponseEntity.ok(ApiResponse.success(message, resolved));
+    }
+
+    ResponseEntity<ApiResponse<InstrumentDTO>> create(InstrumentCreateRequest request) {
+        InstrumentDTO created = instrumentService.createInstrument(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Instrument created successfully", created));
+    }
+
+    ResponseEntity<ApiResponse<InstrumentDTO>> update(UUID id, InstrumentUpdateRequest request) {
+        InstrumentDTO updated = instrumentService.updateInstrument(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Instrument updated successfully", updated));
+    }
+
+    ResponseEntity<ApiResponse<Void>> delete(UUID id) {
+        instrumentService.deleteInstrument(id);
+        return ResponseEntity.ok(ApiResponse.success("Instrument deleted successfully", null));
+    }
+
+    private static Set<String> requestedFields(List<String> fields) {
+        Set<String> requested = new HashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!PROJECTABLE_FIELDS.contains(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "', expected any of " + PROJECTABLE_FIELDS);
+            }
+            requested.add(name);
+        }
+        return requested;
+    }
+
+    /**
+     * Keeps only the requested properties of each instrument, in their declared order
+     */
+    private static List<Map<String, Object>> project(List<InstrumentDTO> instruments, Set<String> requested) {
+        List<Map<String, Object>> projected = new ArrayList<>(instruments.size());
+        for (InstrumentDTO instrument : instruments) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            if (requested.contains("id")) {
+                values.put("id", instrument.getId());
+            }
+            if (requested.contains("name")) {
+                values.put("name", instrument.getName());
+            }
+            if (requested.contains("type")) {
+                values.put("type", instrument.getType());
+            }
+            if (requested.contains("symbol")) {
+                values.put("symbol", instrument.getSymbol());
+            }
+            if (requested.contains("price")) {
+                values.put("price", instrument.getPrice());
+            }
+            projected.add(values);
+        }
+        return projected;
+    }
+}
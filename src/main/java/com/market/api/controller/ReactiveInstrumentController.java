@@ -0,0 +1,110 @@
+package com.market.api.controller;
+
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.InstrumentCreateRequest;
+import com.market.api.dto.InstrumentDTO;
+import com.market.api.dto.InstrumentUpdateRequest;
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.InstrumentType;
+import com.market.api.service.InstrumentService;
+import com.market.api.service.PriceStreamService;
+import com.market.api.service.StreamProperties;
+import com.market.api.service.TradeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link InstrumentController} endpoints on the reactive stack. Reads only touch memory and run on the
+ * event loop; writes wait for the journal, so they run on the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api/instruments")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInstrumentController {
+
+    private final InstrumentService instrumentService;
+    private final InstrumentResponses responses;
+    private final TradeService tradeService;
+    private final PriceStreamService priceStreamService;
+    private final StreamProperties streamProperties;
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllInstruments(
+            @RequestParam(required = false) InstrumentType type,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String symbolPrefix,
+            @RequestParam(required = false) List<String> fields,
+            ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> responses.instruments(type, minPrice, maxPrice, symbolPrefix, fields, exchange::checkNotModified));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamPrices(
+            @RequestParam(required = false) List<String> symbol,
+            @RequestParam(required = false) InstrumentType type) {
+        return FluxEventSink.open(streamProperties.getPrices().getTimeout(),
+                sink -> priceStreamService.subscribe(symbol, type, sink));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<ApiResponse<List<InstrumentDTO>>>> searchInstruments(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(ApiResponse.success(instrumentService.searchInstruments(q, limit))));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getInstrumentById(@PathVariable UUID id, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> responses.instrument(id, exchange::checkNotModified));
+    }
+
+    @GetMapping("/by-symbol/{symbol}")
+    public Mono<ResponseEntity<ApiResponse<InstrumentDTO>>> getInstrumentBySymbol(@PathVariable String symbol) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(ApiResponse.success(instrumentService.getInstrumentBySymbol(symbol))));
+    }
+
+    @PostMapping("/resolve")
+    public Mono<ResponseEntity<ApiResponse<Map<String, InstrumentDTO>>>> resolveSymbols(@RequestBody List<String> symbols) {
+        return Mono.fromCallable(() -> responses.resolve(symbols));
+    }
+
+    @GetMapping("/{id}/trades")
+    public Mono<ResponseEntity<ApiResponse<List<TradeDTO>>>> getInstrumentTrades(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Mono.fromCallable(() -> TradeResponses.page(tradeService.getTradesPageByInstrument(id, after, limit)));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<InstrumentDTO>>> createInstrument(@Valid @RequestBody InstrumentCreateRequest request) {
+        return BlockingCalls.call(() -> responses.create(request));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<InstrumentDTO>>> updateInstrument(
+            @PathVariable UUID id,
+            @Valid @RequestBody InstrumentUpdateRequest request) {
+        return BlockingCalls.call(() -> responses.update(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<Void>>> deleteInstrument(@PathVariable UUID id) {
+        return BlockingCalls.call(() -> responses.delete(id));
+    }
+}
@@ -0,0 +1,94 @@
+package com.market.api.controller;
+
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.TradeBatchItemResult;
+import com.market.api.dto.TradeCreateRequest;
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.TradeSide;
+import com.market.api.service.LagPolicy;
+import com.market.api.service.StreamProperties;
+import com.market.api.service.TradeService;
+import com.market.api.service.TradeTapeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@link TradeController} endpoints on the reactive stack. Reads only touch memory and run on the event
+ * loop; writes may wait for balance locks and the journal, so they run on the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api/trades")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTradeController {
+
+    private final TradeService tradeService;
+    private final TradeTapeService tradeTapeService;
+    private final StreamProperties streamProperties;
+
+    @GetMapping
+    public Mono<ResponseEntity<ApiResponse<List<TradeDTO>>>> getAllTrades(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Mono.fromCallable(() -> TradeResponses.page(tradeService.getTradesPage(from, to, after, limit)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TradeDTO> streamAllTrades() {
+        // Opened before the response is committed, so a failure still maps to a proper error status; the
+        // repository is then read only as fast as the client takes the trades
+        return Flux.fromStream(tradeService.streamAllTrades());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamTrades(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) UUID instrumentId,
+            @RequestParam(required = false) TradeSide side,
+            @RequestParam(required = false) LagPolicy onLag) {
+        return FluxEventSink.open(streamProperties.getTrades().getTimeout(),
+                sink -> tradeTapeService.subscribe(userId, instrumentId, side, onLag, sink));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<TradeDTO>>> getTradeById(@PathVariable UUID id) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(ApiResponse.success(tradeService.getTradeById(id))));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<TradeDTO>>> createTrade(@Valid @RequestBody TradeCreateRequest request) {
+        return BlockingCalls.call(() -> TradeResponses.created(tradeService.createTrade(request)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ApiResponse<List<TradeBatchItemResult>>>> createTrades(
+            @RequestBody List<TradeCreateRequest> requests) {
+        return BlockingCalls.call(() -> TradeResponses.batch(tradeService.createTrades(requests)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<ApiResponse<List<TradeBatchItemResult>>>> createTradesFromNdjson(
+            @RequestBody Flux<TradeCreateRequest> requests) {
+        // One line past the limit is enough for the service to reject the batch; the rest is never decoded
+        return requests.take(TradeService.MAX_BATCH_SIZE + 1L)
+                .collectList()
+                .onErrorMap(ServerWebInputException.class,
+                        e -> TradeResponses.malformedNdjson(e.getMostSpecificCause().getMessage()))
+                .flatMap(batch -> BlockingCalls.call(() -> TradeResponses.batch(tradeService.createTrades(batch))));
+    }
+}
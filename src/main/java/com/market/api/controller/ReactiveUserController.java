@@ -0,0 +1,58 @@
+package com.market.api.controller;
+
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.PositionDTO;
+import com.market.api.dto.TradeDTO;
+import com.market.api.dto.UserDTO;
+import com.market.api.service.TradeService;
+import com.market.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@link UserController} endpoints on the reactive stack; they only read memory, so they run on the event loop
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final UserService userService;
+    private final TradeService tradeService;
+
+    @GetMapping
+    public Mono<ResponseEntity<ApiResponse<List<UserDTO>>>> getAllUsers(ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> ConditionalGet.ifModified(userService.getUsersVersion(), exchange::checkNotModified,
+                version -> ApiResponse.success(userService.getAllUsers())));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<UserDTO>>> getUserById(@PathVariable UUID id, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> ConditionalGet.ifModified(userService.getUserVersion(id), exchange::checkNotModified,
+                version -> ApiResponse.success(userService.getUserById(id))));
+    }
+
+    @GetMapping("/{id}/trades")
+    public Mono<ResponseEntity<ApiResponse<List<TradeDTO>>>> getUserTrades(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Mono.fromCallable(() -> TradeResponses.page(tradeService.getTradesPageByUser(id, after, limit)));
+    }
+
+    @GetMapping("/{id}/positions")
+    public Mono<ResponseEntity<ApiResponse<List<PositionDTO>>>> getUserPositions(@PathVariable UUID id) {
+        return Mono.fromCallable(() -> {
+            List<PositionDTO> positions = tradeService.getPositionsByUser(id);
+            return ResponseEntity.ok(ApiResponse.success(positions));
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.market.api.controller;
+
+import com.market.api.service.EventSink;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * {@link EventSink} writing to a servlet stack {@link SseEmitter}
+ */
+final class SseEmitterSink implements EventSink {
+
+    private final SseEmitter emitter;
+
+    SseEmitterSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String name, String id, Object data) throws IOException {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(name);
+        if (id != null) {
+            event.id(id);
+        }
+        emitter.send(event.data(data, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void comment(String text) throws IOException {
+        emitter.send(SseEmitter.event().comment(text));
+    }
+
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+
+    @Override
+    public void completeWithError(Throwable error) {
+        emitter.completeWithError(error);
+    }
+
+    @Override
+    public void onClose(Runnable callback) {
+        emitter.onCompletion(callback);
+        emitter.onTimeout(callback);
+        emitter.onError(error -> callback.run());
+    }
+}
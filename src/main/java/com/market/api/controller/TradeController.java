@@ -1,23 +1,46 @@
 package com.market.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.market.api.dto.ApiResponse;
+import com.market.api.dto.TradeBatchItemResult;
 import com.market.api.dto.TradeCreateRequest;
 import com.market.api.dto.TradeDTO;
+import com.market.api.metrics.RequestStages;
+import com.market.api.model.TradeSide;
+import com.market.api.service.LagPolicy;
+import com.market.api.service.StreamProperties;
 import com.market.api.service.TradeService;
+import com.market.api.service.TradeTapeService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for Trade endpoints
@@ -26,19 +49,73 @@ import java.util.UUID;
 @RequestMapping("/api/trades")
 @RequiredArgsConstructor
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Trades", description = "Trade management API")
 public class TradeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TradeService tradeService;
+    private final TradeTapeService tradeTapeService;
+    private final StreamProperties streamProperties;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Get all trades", description = "Retrieve a list of all trades")
+    @Operation(summary = "Get trades", description = "Retrieve trades in time order, one page at a time, optionally within a time range. "
+            + "The cursor of the next page is returned in the " + NEXT_CURSOR_HEADER + " header")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved trades", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid time range, limit or cursor")
+    })
+    public ResponseEntity<ApiResponse<List<TradeDTO>>> getAllTrades(
+            @Parameter(description = "Inclusive lower bound on the trade timestamp", example = "2024-01-15T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive upper bound on the trade timestamp", example = "2024-01-16T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Opaque cursor returned by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        return TradeResponses.page(tradeService.getTradesPage(from, to, after, limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all trades", description = "Stream every trade in time order as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamAllTrades() {
+        // Write straight into the response buffer; the container flushes as it fills
+        ObjectWriter writer = objectMapper.writerFor(TradeDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Opened before the response is committed, so a failure still maps to a proper error status
+        Stream<TradeDTO> trades = tradeService.streamAllTrades();
+        StreamingResponseBody body = out -> {
+            try (trades) {
+                Iterator<TradeDTO> iterator = trades.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(out, iterator.next());
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Live trade tape", description = "Server-sent events: a 'trade' event for every trade created from now on that matches the filters. "
+            + "Event ids are consecutive per tape, so a gap means events were dropped for falling behind")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved trades", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Trade tape opened", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = TradeDTO.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid filter or lag policy")
     })
-    public ResponseEntity<ApiResponse<List<TradeDTO>>> getAllTrades() {
-        List<TradeDTO> trades = tradeService.getAllTrades();
-        return ResponseEntity.ok(ApiResponse.success(trades));
+    public SseEmitter streamTrades(
+            @Parameter(description = "Only trades of this user") @RequestParam(required = false) UUID userId,
+            @Parameter(description = "Only trades on this instrument") @RequestParam(required = false) UUID instrumentId,
+            @Parameter(description = "Only trades on this side") @RequestParam(required = false) TradeSide side,
+            @Parameter(description = "DROP the oldest undelivered events or DISCONNECT when falling behind (default from configuration)")
+            @RequestParam(required = false) LagPolicy onLag) {
+        SseEmitter emitter = new SseEmitter(streamProperties.getTrades().getTimeout().toMillis());
+        tradeTapeService.subscribe(userId, instrumentId, side, onLag, new SseEmitterSink(emitter));
+        return emitter;
     }
 
     @GetMapping("/{id}")
@@ -60,8 +137,42 @@ public class TradeController {
     })
     public ResponseEntity<ApiResponse<TradeDTO>> createTrade(
             @Valid @RequestBody TradeCreateRequest request) {
-        TradeDTO created = tradeService.createTrade(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Trade created successfully", created));
+        RequestStages.mark(RequestStages.Stage.VALIDATION);
+        return TradeResponses.created(tradeService.createTrade(request));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create trades in bulk", description = "Create many trades from a JSON array in one call. "
+            + "Each item is validated independently and reported in the per-item results")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Malformed body or batch too large")
+    })
+    public ResponseEntity<ApiResponse<List<TradeBatchItemResult>>> createTrades(
+            @RequestBody List<TradeCreateRequest> requests) {
+        return TradeResponses.batch(tradeService.createTrades(requests));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create trades in bulk from NDJSON", description = "Create many trades from newline-delimited JSON, one trade request per line. "
+            + "Each item is validated independently and reported in the per-item results")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Malformed body or batch too large")
+    })
+    public ResponseEntity<ApiResponse<List<TradeBatchItemResult>>> createTradesFromNdjson(InputStream body) throws IOException {
+        List<TradeCreateRequest> requests = new ArrayList<>();
+        try (MappingIterator<TradeCreateRequest> lines = objectMapper.readerFor(TradeCreateRequest.class).readValues(body)) {
+            // Rejected as soon as the limit is passed, rather than once the whole upload is in memory
+            while (lines.hasNextValue()) {
+                if (requests.size() == TradeService.MAX_BATCH_SIZE) {
+                    throw TradeService.batchTooLarge();
+                }
+                requests.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw TradeResponses.malformedNdjson(e.getOriginalMessage());
+        }
+        return TradeResponses.batch(tradeService.createTrades(requests));
     }
 }
@@ -0,0 +1,43 @@
+package com.market.api.controller;
+
+import com.market.api.dto.ApiResponse;
+import com.market.api.dto.CursorPage;
+import com.market.api.dto.TradeBatchItemResult;
+import com.market.api.dto.TradeDTO;
+import com.market.api.service.InvalidRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Trade responses shared by the servlet and reactive controllers
+ */
+final class TradeResponses {
+
+    private TradeResponses() {
+    }
+
+    static ResponseEntity<ApiResponse<List<TradeDTO>>> page(CursorPage<TradeDTO> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(TradeController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(ApiResponse.success(page.getItems()));
+    }
+
+    static ResponseEntity<ApiResponse<TradeDTO>> created(TradeDTO trade) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Trade created successfully", trade));
+    }
+
+    static ResponseEntity<ApiResponse<List<TradeBatchItemResult>>> batch(List<TradeBatchItemResult> results) {
+        long created = results.stream().filter(TradeBatchItemResult::isSuccess).count();
+        String message = "Batch processed: " + created + " created, " + (results.size() - created) + " rejected";
+        return ResponseEntity.ok(ApiResponse.success(message, results));
+    }
+
+    static InvalidRequestException malformedNdjson(String detail) {
+        return new InvalidRequestException("Malformed NDJSON body: " + detail);
+    }
+}
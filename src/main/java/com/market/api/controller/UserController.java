@@ -1,16 +1,22 @@
 package com.market.api.controller;
 
 import com.market.api.dto.ApiResponse;
+import com.market.api.dto.PositionDTO;
+import com.market.api.dto.TradeDTO;
 import com.market.api.dto.UserDTO;
+import com.market.api.service.TradeService;
 import com.market.api.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,29 +27,61 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Users", description = "User management API")
 public class UserController {
 
     private final UserService userService;
+    private final TradeService tradeService;
 
     @GetMapping
-    @Operation(summary = "Get all users", description = "Retrieve a list of all users")
+    @Operation(summary = "Get all users", description = "Retrieve a list of all users. "
+            + "The ETag changes whenever any user does; send it back in If-None-Match to get 304 until then")
     @ApiResponses(value = {
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved users", content = @Content(schema = @Schema(implementation = ApiResponse.class)))
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved users", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "No user changed since the ETag in If-None-Match")
     })
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(ApiResponse.success(users));
+    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers(WebRequest request) {
+        return ConditionalGet.ifModified(userService.getUsersVersion(), request::checkNotModified,
+                version -> ApiResponse.success(userService.getAllUsers()));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get user by ID", description = "Retrieve a specific user by their UUID")
+    @Operation(summary = "Get user by ID", description = "Retrieve a specific user by their UUID. "
+            + "The ETag changes whenever the user does, trade settlement included; send it back in If-None-Match to get 304 until then")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved user", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "User unchanged since the ETag in If-None-Match"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "User not found")
     })
-    public ResponseEntity<ApiResponse<UserDTO>> getUserById(@PathVariable UUID id) {
-        UserDTO user = userService.getUserById(id);
-        return ResponseEntity.ok(ApiResponse.success(user));
+    public ResponseEntity<ApiResponse<UserDTO>> getUserById(@PathVariable UUID id, WebRequest request) {
+        return ConditionalGet.ifModified(userService.getUserVersion(id), request::checkNotModified,
+                version -> ApiResponse.success(userService.getUserById(id)));
+    }
+
+    @GetMapping("/{id}/trades")
+    @Operation(summary = "Get trades for a user", description = "Retrieve the trades of a specific user in time order, one page at a time. "
+            + "The cursor of the next page is returned in the " + TradeController.NEXT_CURSOR_HEADER + " header")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved trades", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<ApiResponse<List<TradeDTO>>> getUserTrades(
+            @PathVariable UUID id,
+            @Parameter(description = "Opaque cursor returned by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        return TradeResponses.page(tradeService.getTradesPageByUser(id, after, limit));
+    }
+
+    @GetMapping("/{id}/positions")
+    @Operation(summary = "Get positions for a user", description = "Retrieve the user's open net position in each instrument, "
+            + "with the average price of the open quantity")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved positions", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<ApiResponse<List<PositionDTO>>> getUserPositions(@PathVariable UUID id) {
+        List<PositionDTO> positions = tradeService.getPositionsByUser(id);
+        return ResponseEntity.ok(ApiResponse.success(positions));
     }
 }
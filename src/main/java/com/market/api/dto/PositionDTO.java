@@ -0,0 +1,33 @@
+package com.market.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for Position responses
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Net position of a user in one instrument")
+public class PositionDTO {
+
+    @Schema(description = "User ID", example = "22222222-aaaa-bbbb-cccc-000000000001")
+    private UUID userId;
+
+    @Schema(description = "Instrument ID", example = "11111111-aaaa-bbbb-cccc-000000000002")
+    private UUID instrumentId;
+
+    @Schema(description = "Net quantity: bought minus sold, negative when short", example = "12")
+    private long quantity;
+
+    @Schema(description = "Average price of the open quantity, from the instrument price at fill time", example = "189.32")
+    private BigDecimal averagePrice;
+}
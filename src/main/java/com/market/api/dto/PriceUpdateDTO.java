@@ -0,0 +1,38 @@
+package com.market.api.dto;
+
+import com.market.api.model.InstrumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for price events pushed to instrument stream subscribers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Current price of an instrument")
+public class PriceUpdateDTO {
+
+    @Schema(description = "Instrument ID", example = "11111111-aaaa-bbbb-cccc-000000000002")
+    private UUID instrumentId;
+
+    @Schema(description = "Trading symbol", example = "BTCUSD")
+    private String symbol;
+
+    @Schema(description = "Instrument type", example = "CRYPTO")
+    private InstrumentType type;
+
+    @Schema(description = "Current price", example = "43210.55")
+    private BigDecimal price;
+
+    @Schema(description = "When the price was published", example = "2024-01-15T10:30:00")
+    private LocalDateTime timestamp;
+}
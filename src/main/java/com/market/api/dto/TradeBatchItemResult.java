@@ -0,0 +1,48 @@
+package com.market.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one item of a batch trade request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one item of a batch trade request")
+public class TradeBatchItemResult {
+
+    @Schema(description = "Zero-based position of the item in the batch", example = "0")
+    private int index;
+
+    @Schema(description = "Indicates if the trade was created", example = "true")
+    private boolean success;
+
+    @Schema(description = "Created trade, present on success")
+    private TradeDTO trade;
+
+    @Schema(description = "Reason the item was rejected, present on failure", example = "User not found with id: 99999999-aaaa-bbbb-cccc-000000000000")
+    private String error;
+
+    public static TradeBatchItemResult created(int index, TradeDTO trade) {
+        return TradeBatchItemResult.builder()
+                .index(index)
+                .success(true)
+                .trade(trade)
+                .build();
+    }
+
+    public static TradeBatchItemResult rejected(int index, String error) {
+        return TradeBatchItemResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.market.api.jfr;
+
+import com.market.api.dto.InstrumentDTO;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * One {@code InstrumentService.updateInstrument} call, including the price stream publish it may trigger
+ */
+@Name("com.market.api.InstrumentUpdate")
+@Label("Instrument Update")
+@Category({"Market API", "Instruments"})
+@Description("An instrument updated, or an update rejected")
+@Enabled(false)
+@StackTrace(false)
+public class InstrumentUpdateEvent extends MarketEvent {
+
+    @Label("Instrument")
+    String instrumentId;
+
+    @Label("Symbol")
+    String symbol;
+
+    @Label("Price")
+    @Description("Price after the update")
+    double price;
+
+    @Label("Outcome")
+    @Description("UPDATED, REJECTED for an invalid or unknown instrument, or FAILED")
+    String outcome;
+
+    @Label("Reason")
+    @Description("Why the instrument was not updated")
+    String reason;
+
+    /**
+     * Ends the event and commits it if it is being recorded
+     *
+     * @param updated the updated instrument, or null if the update failed
+     * @param failure what stopped the update, or null if it succeeded
+     */
+    public void finish(UUID id, InstrumentDTO updated, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            instrumentId = String.valueOf(id);
+            if (updated != null) {
+                symbol = updated.getSymbol();
+                price = updated.getPrice() == null ? Double.NaN : updated.getPrice().doubleValue();
+            } else {
+                price = Double.NaN;
+            }
+            outcome = failure == null ? "UPDATED" : outcome(failure);
+            reason = failure == null ? null : failure.getMessage();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.market.api.jfr;
+
+import com.market.api.service.InvalidRequestException;
+import com.market.api.service.ResourceNotFoundException;
+import jdk.jfr.Event;
+
+/**
+ * Base of the application's Flight Recorder events. They are disabled unless a recording's settings enable
+ * them, as {@code jfr/market.jfc} does; a disabled event costs next to nothing, so callers create one for
+ * every operation and only fill in its fields once {@link #shouldCommit()} says it is recorded.
+ */
+abstract class MarketEvent extends Event {
+
+    /**
+     * The outcome of a failed operation: REJECTED for an invalid request, FAILED for anything else
+     */
+    static String outcome(RuntimeException failure) {
+        return failure instanceof InvalidRequestException || failure instanceof ResourceNotFoundException
+                ? "REJECTED"
+                : "FAILED";
+    }
+}
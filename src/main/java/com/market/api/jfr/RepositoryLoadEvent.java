@@ -0,0 +1,42 @@
+package com.market.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Bulk loading into the repositories: seed data at startup and journal replay during recovery
+ */
+@Name("com.market.api.RepositoryLoad")
+@Label("Repository Load")
+@Category({"Market API", "Persistence"})
+@Description("Entities loaded into a repository from seed data or the journal")
+@Enabled(false)
+public class RepositoryLoadEvent extends MarketEvent {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Source")
+    @Description("Seed file, binary snapshot or journal segment read")
+    String source;
+
+    @Label("Entities")
+    @Description("Entities held after the load, or journal records replayed")
+    long entities;
+
+    /**
+     * Ends the event and commits it if it is being recorded
+     */
+    public void finish(String repository, String source, long entities) {
+        end();
+        if (shouldCommit()) {
+            this.repository = repository;
+            this.source = source;
+            this.entities = entities;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.market.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Serializing a response body that was not cached, as the instrument response cache does on a miss
+ */
+@Name("com.market.api.ResponseSerialization")
+@Label("Response Serialization")
+@Category({"Market API", "Serialization"})
+@Description("A response body serialized with Jackson")
+@Enabled(false)
+@StackTrace(false)
+public class ResponseSerializationEvent extends MarketEvent {
+
+    @Label("Response")
+    @Description("The instrument or collection view serialized")
+    String response;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    /**
+     * Ends the event and commits it if it is being recorded
+     */
+    public void finish(Object response, long size) {
+        end();
+        if (shouldCommit()) {
+            this.response = String.valueOf(response);
+            this.size = size;
+            commit();
+        }
+    }
+}
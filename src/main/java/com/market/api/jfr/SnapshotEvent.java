@@ -0,0 +1,54 @@
+package com.market.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing a binary snapshot of every repository, or loading one during recovery
+ */
+@Name("com.market.api.Snapshot")
+@Label("Snapshot")
+@Category({"Market API", "Persistence"})
+@Description("A binary snapshot written or loaded")
+@Enabled(false)
+public class SnapshotEvent extends MarketEvent {
+
+    @Label("Operation")
+    @Description("WRITE or LOAD")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Instruments")
+    long instruments;
+
+    @Label("Users")
+    long users;
+
+    @Label("Trades")
+    long trades;
+
+    @Label("Replay From")
+    @Description("First journal segment not covered by the snapshot")
+    long replayFrom;
+
+    /**
+     * Ends the event and commits it if it is being recorded
+     */
+    public void finish(String operation, String path, long instruments, long users, long trades, long replayFrom) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.path = path;
+            this.instruments = instruments;
+            this.users = users;
+            this.trades = trades;
+            this.replayFrom = replayFrom;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.market.api.jfr;
+
+import com.market.api.dto.TradeCreateRequest;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code TradeService.createTrade} call, from the request reaching the service to the trade being published
+ */
+@Name("com.market.api.TradeCreation")
+@Label("Trade Creation")
+@Category({"Market API", "Trades"})
+@Description("A single trade created or rejected")
+@Enabled(false)
+@StackTrace(false)
+public class TradeCreationEvent extends MarketEvent {
+
+    @Label("User")
+    String userId;
+
+    @Label("Instrument")
+    String instrumentId;
+
+    @Label("Quantity")
+    int quantity;
+
+    @Label("Side")
+    String side;
+
+    @Label("Outcome")
+    @Description("CREATED, REJECTED for a request that failed validation or settlement, or FAILED")
+    String outcome;
+
+    @Label("Reason")
+    @Description("Why the trade was not created")
+    String reason;
+
+    /**
+     * Ends the event and commits it if it is being recorded
+     *
+     * @param failure what stopped the trade being created, or null if it was
+     */
+    public void finish(TradeCreateRequest request, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            userId = String.valueOf(request.getUserId());
+            instrumentId = String.valueOf(request.getInstrumentId());
+            quantity = request.getQuantity() == null ? 0 : request.getQuantity();
+            side = String.valueOf(request.getSide());
+            outcome = failure == null ? "CREATED" : outcome(failure);
+            reason = failure == null ? null : failure.getMessage();
+            commit();
+        }
+    }
+}
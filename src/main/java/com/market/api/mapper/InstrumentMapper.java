@@ -5,6 +5,7 @@ import com.market.api.dto.InstrumentDTO;
 import com.market.api.dto.InstrumentUpdateRequest;
 import com.market.api.model.Instrument;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -16,7 +17,11 @@ public interface InstrumentMapper {
 
     InstrumentDTO toDTO(Instrument instrument);
 
+    @Mapping(target = "id", ignore = true)
     Instrument toEntity(InstrumentCreateRequest request);
 
+    Instrument copy(Instrument instrument);
+
+    @Mapping(target = "id", ignore = true)
     void updateEntityFromDTO(InstrumentUpdateRequest request, @MappingTarget Instrument instrument);
 }
@@ -0,0 +1,14 @@
+package com.market.api.mapper;
+
+import com.market.api.dto.PositionDTO;
+import com.market.api.model.Position;
+import org.mapstruct.Mapper;
+
+/**
+ * MapStruct mapper for Position entity and DTOs
+ */
+@Mapper(componentModel = "spring")
+public interface PositionMapper {
+
+    PositionDTO toDTO(Position position);
+}
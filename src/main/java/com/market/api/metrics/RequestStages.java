@@ -0,0 +1,117 @@
+package com.market.api.metrics;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Time spent in each stage of one trade creation request, recorded on the thread handling it. Each
+ * {@link #mark(Stage)} closes a stage, attributing to it the time since the previous mark, so a stage entered
+ * several times accumulates. Whatever follows the last mark is the {@link Stage#RESPONSE} stage.
+ * <p>
+ * Marking costs a thread local read when no request is being recorded, as for every caller other than
+ * {@code POST /api/trades}.
+ */
+public final class RequestStages {
+
+    private static final ThreadLocal<RequestStages> CURRENT = new ThreadLocal<>();
+    private static final long NOT_RUN = -1;
+
+    public enum Stage {
+        READ("read", "Dispatch and request body read"),
+        VALIDATION("validation", "Bean validation"),
+        LOOKUP("lookup", "User and instrument lookups"),
+        MAPPING("mapping", "MapStruct mapping"),
+        SETTLE("settle", "User lock and balance settlement"),
+        SAVE("save", "Trade, user and position saves"),
+        PUBLISH("publish", "Trade tape publish"),
+        RESPONSE("response", "Response serialization and write");
+
+        private final String metricName;
+        private final String description;
+
+        Stage(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+
+        public String description() {
+            return description;
+        }
+    }
+
+    private final long started;
+    private final long[] durations = new long[Stage.values().length];
+    private long last;
+    private long total;
+
+    private RequestStages() {
+        started = System.nanoTime();
+        last = started;
+        Arrays.fill(durations, NOT_RUN);
+    }
+
+    /**
+     * Starts recording the current thread's request
+     */
+    public static RequestStages start() {
+        RequestStages stages = new RequestStages();
+        CURRENT.set(stages);
+        return stages;
+    }
+
+    /**
+     * Ends the stage in progress on this thread, if a request is being recorded
+     */
+    public static void mark(Stage stage) {
+        RequestStages stages = CURRENT.get();
+        if (stages != null) {
+            stages.end(stage, System.nanoTime());
+        }
+    }
+
+    /**
+     * Ends the recording, attributing the rest of the request to {@link Stage#RESPONSE}
+     */
+    public void stop() {
+        CURRENT.remove();
+        long now = System.nanoTime();
+        end(Stage.RESPONSE, now);
+        total = now - started;
+    }
+
+    /**
+     * Nanoseconds spent in the stage, or -1 if the request never reached it
+     */
+    public long duration(Stage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    /**
+     * The stages run and the whole request as a {@code Server-Timing} header value, in milliseconds
+     */
+    public String serverTiming() {
+        StringJoiner header = new StringJoiner(", ");
+        for (Stage stage : Stage.values()) {
+            long duration = duration(stage);
+            if (duration != NOT_RUN) {
+                header.add(metric(stage.metricName(), duration) + ";desc=\"" + stage.description() + "\"");
+            }
+        }
+        return header.add(metric("total", total)).toString();
+    }
+
+    private void end(Stage stage, long now) {
+        int index = stage.ordinal();
+        durations[index] = Math.max(durations[index], 0) + now - last;
+        last = now;
+    }
+
+    private static String metric(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.3f", name, nanos / 1_000_000.0);
+    }
+}
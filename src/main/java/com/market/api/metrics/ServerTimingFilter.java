@@ -0,0 +1,94 @@
+package com.market.api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the stages of {@code POST /api/trades} with {@link RequestStages}, recording each into a histogram. A
+ * request carrying the configured request header also gets them back in a {@code Server-Timing} header; its body
+ * is held back until the response is complete, so the header can still be set after serialization.
+ * <p>
+ * Ordered just ahead of {@code CompressionFilter}, so compression counts towards the response stage.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServerTimingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+    private static final String TRADES_PATH = "/api/trades";
+
+    private final TimingProperties properties;
+    private volatile Timer[] stageTimers;
+
+    public ServerTimingFilter(TimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + TRADES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = request.getHeader(properties.getRequestHeader()) != null
+                ? new ContentCachingResponseWrapper(response)
+                : null;
+        RequestStages stages = RequestStages.start();
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            stages.stop();
+            record(stages);
+            if (buffered != null) {
+                buffered.setHeader(SERVER_TIMING_HEADER, stages.serverTiming());
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RequestStages.Stage[] stages = RequestStages.Stage.values();
+        Timer[] timers = new Timer[stages.length];
+        for (RequestStages.Stage stage : stages) {
+            timers[stage.ordinal()] = OperationTimers.latencyTimer("market.trades.create.stages",
+                            "Time taken by each stage of POST /api/trades")
+                    .tag("stage", stage.metricName())
+                    .register(registry);
+        }
+        stageTimers = timers;
+    }
+
+    private void record(RequestStages stages) {
+        Timer[] timers = stageTimers;
+        if (timers == null) {
+            return;
+        }
+        for (RequestStages.Stage stage : RequestStages.Stage.values()) {
+            long duration = stages.duration(stage);
+            if (duration >= 0) {
+                timers[stage.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
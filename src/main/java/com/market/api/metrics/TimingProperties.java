@@ -0,0 +1,24 @@
+package com.market.api.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of request stage timing ({@code market.timing.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.timing")
+public class TimingProperties {
+
+    /**
+     * Whether the stages of trade creation are timed at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Request header asking for the stages in a {@code Server-Timing} response header; any value will do
+     */
+    private String requestHeader = "X-Server-Timing";
+}
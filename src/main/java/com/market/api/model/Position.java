@@ -0,0 +1,24 @@
+package com.market.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Domain model representing a user's net position in one instrument
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Position {
+    private UUID userId;
+    private UUID instrumentId;
+    // Positive when long, negative when short
+    private long quantity;
+    private BigDecimal averagePrice;
+}
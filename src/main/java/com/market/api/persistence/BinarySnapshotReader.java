@@ -0,0 +1,195 @@
+package com.market.api.persistence;
+
+import com.market.api.model.Instrument;
+import com.market.api.model.InstrumentType;
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import com.market.api.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.market.api.persistence.BinarySnapshotWriter.*;
+
+/**
+ * Reads snapshots written by {@link BinarySnapshotWriter} through {@link MappedByteBuffer}s, decoding
+ * entities straight from the page cache into the caller's sink without an intermediate list.
+ * Each section can be read independently, so repositories can load their own section concurrently.
+ */
+public class BinarySnapshotReader implements Closeable {
+
+    private static final InstrumentType[] INSTRUMENT_TYPES = InstrumentType.values();
+    private static final TradeSide[] TRADE_SIDES = TradeSide.values();
+    private static final long MAX_TRADES_PER_WINDOW = Integer.MAX_VALUE / TRADE_BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long replayFrom;
+    private final long[] offsets = new long[3];
+    private final long[] counts = new long[3];
+    private final long[] lengths = new long[3];
+
+    private BinarySnapshotReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated snapshot header: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a binary snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            this.replayFrom = header.getLong();
+            for (int section = 0; section < 3; section++) {
+                offsets[section] = header.getLong();
+                counts[section] = header.getLong();
+                lengths[section] = header.getLong();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static BinarySnapshotReader open(Path path) throws IOException {
+        return new BinarySnapshotReader(path);
+    }
+
+    /**
+     * First journal segment not covered by this snapshot
+     */
+    public long getReplayFrom() {
+        return replayFrom;
+    }
+
+    public long getTradeCount() {
+        return counts[TRADES];
+    }
+
+    public long readInstruments(Consumer<Instrument> sink) throws IOException {
+        MappedByteBuffer buffer = mapSection(INSTRUMENTS);
+        for (long i = 0; i < counts[INSTRUMENTS]; i++) {
+            sink.accept(Instrument.builder()
+                    .id(getUuid(buffer))
+                    .name(getString(buffer))
+                    .type(getEnum(buffer.get(), INSTRUMENT_TYPES))
+                    .symbol(getString(buffer))
+                    .price(getDecimal(buffer))
+                    .build());
+        }
+        return counts[INSTRUMENTS];
+    }
+
+    public long readUsers(Consumer<User> sink) throws IOException {
+        MappedByteBuffer buffer = mapSection(USERS);
+        for (long i = 0; i < counts[USERS]; i++) {
+            sink.accept(User.builder()
+                    .id(getUuid(buffer))
+                    .username(getString(buffer))
+                    .country(getString(buffer))
+                    .balance(getDecimal(buffer))
+                    .build());
+        }
+        return counts[USERS];
+    }
+
+    public long readTrades(Consumer<Trade> sink) throws IOException {
+        // Trade records are fixed-size, so sections beyond 2 GB are read through consecutive windows
+        long remaining = counts[TRADES];
+        long position = offsets[TRADES];
+        while (remaining > 0) {
+            long windowTrades = Math.min(remaining, MAX_TRADES_PER_WINDOW);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowTrades * TRADE_BYTES);
+            for (long i = 0; i < windowTrades; i++) {
+                sink.accept(readTrade(buffer));
+            }
+            position += windowTrades * TRADE_BYTES;
+            remaining -= windowTrades;
+        }
+        return counts[TRADES];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static Trade readTrade(ByteBuffer buffer) {
+        UUID id = getUuid(buffer);
+        UUID userId = getUuid(buffer);
+        UUID instrumentId = getUuid(buffer);
+        int quantity = buffer.getInt();
+        byte side = buffer.get();
+        long timestamp = buffer.getLong();
+        return Trade.builder()
+                .id(id)
+                .userId(userId)
+                .instrumentId(instrumentId)
+                .quantity(quantity == NULL_INT ? null : quantity)
+                .side(getEnum(side, TRADE_SIDES))
+                .timestamp(timestamp == NULL_LONG ? null : fromEpochMicros(timestamp))
+                .build();
+    }
+
+    private MappedByteBuffer mapSection(int section) throws IOException {
+        if (lengths[section] > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large to map: " + path);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offsets[section], lengths[section]);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), buffer.getInt());
+    }
+
+    private static <E extends Enum<E>> E getEnum(byte ordinal, E[] values) {
+        return ordinal == NULL_BYTE ? null : values[ordinal];
+    }
+}
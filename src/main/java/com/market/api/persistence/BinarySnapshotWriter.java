@@ -0,0 +1,225 @@
+package com.market.api.persistence;
+
+import com.market.api.model.Instrument;
+import com.market.api.model.Trade;
+import com.market.api.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Writes the compact binary snapshot format read by {@link BinarySnapshotReader}.
+ * <p>
+ * Layout: a fixed {@value #HEADER_BYTES}-byte header ({@code int magic | int version | long replayFrom},
+ * then {@code long offset | long count | long length} for the instrument, user and trade sections),
+ * followed by the sections. Trades are fixed-size {@value #TRADE_BYTES}-byte records: three UUIDs as
+ * long pairs, quantity as int, side as byte and timestamp as UTC epoch microseconds. Instruments and
+ * users are variable-length, with length-prefixed UTF-8 strings and BigDecimals as scale plus unscaled bytes.
+ * Enum values are stored by ordinal, so enum constants may only ever be appended.
+ * <p>
+ * The file is written beside the target and atomically moved into place on {@link #commit()}.
+ */
+public class BinarySnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x4D4B5342;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16 + 3 * 24;
+    static final int TRADE_BYTES = 16 * 3 + Integer.BYTES + 1 + Long.BYTES;
+
+    static final int INSTRUMENTS = 0;
+    static final int USERS = 1;
+    static final int TRADES = 2;
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+    static final long NULL_LONG = Long.MIN_VALUE;
+    static final byte NULL_BYTE = -1;
+    static final int NULL_LENGTH = -1;
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final long replayFrom;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private final long[] offsets = new long[3];
+    private final long[] counts = new long[3];
+    private final long[] lengths = new long[3];
+    private boolean committed;
+
+    private BinarySnapshotWriter(Path target, long replayFrom) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.replayFrom = replayFrom;
+        this.channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.position(HEADER_BYTES);
+    }
+
+    /**
+     * @param replayFrom first journal segment not covered by the snapshot; 0 for seed snapshots
+     */
+    public static BinarySnapshotWriter create(Path target, long replayFrom) throws IOException {
+        return new BinarySnapshotWriter(target, replayFrom);
+    }
+
+    public long writeInstruments(Iterator<Instrument> instruments) throws IOException {
+        begin(INSTRUMENTS);
+        long count = 0;
+        while (instruments.hasNext()) {
+            Instrument instrument = instruments.next();
+            putUuid(instrument.getId());
+            putString(instrument.getName());
+            ensure(1);
+            buffer.put(instrument.getType() == null ? NULL_BYTE : (byte) instrument.getType().ordinal());
+            putString(instrument.getSymbol());
+            putDecimal(instrument.getPrice());
+            count++;
+        }
+        return end(INSTRUMENTS, count);
+    }
+
+    public long writeUsers(Iterator<User> users) throws IOException {
+        begin(USERS);
+        long count = 0;
+        while (users.hasNext()) {
+            User user = users.next();
+            putUuid(user.getId());
+            putString(user.getUsername());
+            putString(user.getCountry());
+            putDecimal(user.getBalance());
+            count++;
+        }
+        return end(USERS, count);
+    }
+
+    public long writeTrades(Iterator<Trade> trades) throws IOException {
+        begin(TRADES);
+        long count = 0;
+        while (trades.hasNext()) {
+            Trade trade = trades.next();
+            putUuid(trade.getId());
+            putUuid(trade.getUserId());
+            putUuid(trade.getInstrumentId());
+            ensure(Integer.BYTES + 1 + Long.BYTES);
+            buffer.putInt(trade.getQuantity() == null ? NULL_INT : trade.getQuantity());
+            buffer.put(trade.getSide() == null ? NULL_BYTE : (byte) trade.getSide().ordinal());
+            buffer.putLong(trade.getTimestamp() == null ? NULL_LONG : toEpochMicros(trade.getTimestamp()));
+            count++;
+        }
+        return end(TRADES, count);
+    }
+
+    /**
+     * Writes the header, forces the file to disk and atomically moves it into place
+     */
+    public void commit() throws IOException {
+        flush();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(replayFrom);
+        for (int section = 0; section < 3; section++) {
+            header.putLong(offsets[section]).putLong(counts[section]).putLong(lengths[section]);
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+    }
+
+    /**
+     * Discards the partially written file unless {@link #commit()} succeeded
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private void begin(int section) throws IOException {
+        flush();
+        offsets[section] = channel.position();
+    }
+
+    private long end(int section, long count) throws IOException {
+        flush();
+        counts[section] = count;
+        lengths[section] = channel.position() - offsets[section];
+        return count;
+    }
+
+    private void putUuid(UUID id) throws IOException {
+        ensure(16);
+        // A null id is stored as the nil UUID, which is never assigned to an entity
+        buffer.putLong(id == null ? 0L : id.getMostSignificantBits());
+        buffer.putLong(id == null ? 0L : id.getLeastSignificantBits());
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            ensure(Integer.BYTES);
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        putBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void putDecimal(BigDecimal value) throws IOException {
+        if (value == null) {
+            ensure(Integer.BYTES);
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        putBytes(value.unscaledValue().toByteArray());
+        ensure(Integer.BYTES);
+        buffer.putInt(value.scale());
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(bytes.length);
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+            return;
+        }
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,29 @@
+package com.market.api.persistence;
+
+/**
+ * Kind of entity a journal record applies to. Codes are persisted and must never be reused.
+ */
+public enum EntityType {
+    INSTRUMENT((byte) 1),
+    USER((byte) 2),
+    TRADE((byte) 3);
+
+    private final byte code;
+
+    EntityType(byte code) {
+        this.code = code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static EntityType fromCode(byte code) {
+        for (EntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown entity type code: " + code);
+    }
+}
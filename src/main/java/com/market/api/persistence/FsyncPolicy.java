@@ -0,0 +1,19 @@
+package com.market.api.persistence;
+
+/**
+ * When the journal forces appended records to stable storage
+ */
+public enum FsyncPolicy {
+    /**
+     * Force after every write call; the most durable and the slowest
+     */
+    WRITE,
+    /**
+     * Force once per group commit, covering every write that queued up while the previous group was on disk
+     */
+    BATCH,
+    /**
+     * Force on a fixed interval; writes acknowledged since the last force can be lost on power failure
+     */
+    INTERVAL
+}
@@ -0,0 +1,348 @@
+package com.market.api.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only write-ahead journal of repository writes.
+ * <p>
+ * Callers encode their record and hand it to a single writer thread, which drains everything queued
+ * behind it into one gathered {@link FileChannel} write (group commit) and forces it according to the
+ * configured {@link FsyncPolicy}. A write is applied to memory only once its record is on disk, and by the
+ * writer thread in journal order, so memory always ends up in the state a replay rebuilds, even for writes
+ * to the same entity that no caller lock orders. A group that fails to write is cut from the segment, so
+ * the records acknowledged after it are not lost behind a torn frame on replay.
+ * When persistence is disabled every method simply applies the write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Journal {
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int MAX_GROUP_SIZE = 1024;
+    private static final PendingWrite SHUTDOWN = new PendingWrite(new ByteBuffer[0], () -> { });
+
+    private final PersistenceProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    // Writers hold the read lock from append to apply; rotation takes the write lock so that every record
+    // in a closed segment is already visible in memory when a snapshot starts
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final Object channelLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    private volatile boolean open;
+    private Thread writer;
+    private ScheduledExecutorService fsyncScheduler;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Journals an insert or update, then applies it
+     */
+    public void put(EntityType type, Object entity, Runnable apply) {
+        if (!isEnabled()) {
+            apply.run();
+            return;
+        }
+        append(new ByteBuffer[]{JournalRecord.encodePut(type, toJson(entity))}, apply);
+    }
+
+    /**
+     * Journals several inserts or updates as one write, then applies them
+     */
+    public void putAll(EntityType type, List<?> entities, Runnable apply) {
+        if (!isEnabled() || entities.isEmpty()) {
+            apply.run();
+            return;
+        }
+        ByteBuffer[] records = new ByteBuffer[entities.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = JournalRecord.encodePut(type, toJson(entities.get(i)));
+        }
+        append(records, apply);
+    }
+
+    /**
+     * Journals a deletion, then applies it
+     */
+    public void delete(EntityType type, UUID id, Runnable apply) {
+        if (!isEnabled()) {
+            apply.run();
+            return;
+        }
+        append(new ByteBuffer[]{JournalRecord.encodeDelete(type, id)}, apply);
+    }
+
+    /**
+     * Starts appending to the given segment; called once recovery has replayed every older segment
+     */
+    public synchronized void open(long firstSegment) throws IOException {
+        Files.createDirectories(directory());
+        synchronized (channelLock) {
+            segment = firstSegment;
+            channel = openSegment(segment);
+        }
+
+        writer = new Thread(this::writeLoop, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        if (properties.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+            long intervalMillis = properties.getFsyncInterval().toMillis();
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncScheduler.scheduleWithFixedDelay(this::forceQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        open = true;
+        log.info("Journal open at segment {} in {} (fsync policy: {})",
+                segment, directory().toAbsolutePath(), properties.getFsyncPolicy());
+    }
+
+    /**
+     * Closes the current segment and starts the next one, returning the new segment number.
+     * Every record in earlier segments is applied in memory by the time this returns.
+     */
+    public long rotate() throws IOException {
+        rotationLock.writeLock().lock();
+        try {
+            synchronized (channelLock) {
+                channel.force(true);
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+                return segment;
+            }
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        queue.add(SHUTDOWN);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdownNow();
+        }
+
+        List<PendingWrite> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(write -> write.done.completeExceptionally(new IOException("Journal closed")));
+
+        synchronized (channelLock) {
+            try {
+                channel.force(true);
+                channel.close();
+            } catch (IOException e) {
+                log.error("Failed to close journal segment {}", segment, e);
+            }
+        }
+        log.info("Journal closed");
+    }
+
+    Path directory() {
+        return Path.of(properties.getDirectory());
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private void append(ByteBuffer[] records, Runnable apply) {
+        rotationLock.readLock().lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("Journal is not open");
+            }
+            PendingWrite write = new PendingWrite(records, apply);
+            queue.add(write);
+            try {
+                write.done.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException applyFailure) {
+                    throw applyFailure;
+                }
+                throw new JournalException("Failed to append to journal", e.getCause());
+            }
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> group = new ArrayList<>(MAX_GROUP_SIZE);
+        boolean running = true;
+        while (running) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP_SIZE - 1);
+            running = !group.remove(SHUTDOWN);
+            if (!group.isEmpty()) {
+                writeGroup(group);
+            }
+            group.clear();
+        }
+    }
+
+    private void writeGroup(List<PendingWrite> group) {
+        FsyncPolicy policy = properties.getFsyncPolicy();
+        synchronized (channelLock) {
+            long start = -1;
+            try {
+                start = channel.size();
+                for (PendingWrite write : group) {
+                    writeFully(write.records);
+                    if (policy == FsyncPolicy.WRITE) {
+                        channel.force(false);
+                    }
+                }
+                if (policy == FsyncPolicy.BATCH) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                log.error("Journal write failed", e);
+                discardFrom(start);
+                group.forEach(write -> write.done.completeExceptionally(e));
+                return;
+            }
+        }
+        for (PendingWrite write : group) {
+            try {
+                write.apply.run();
+                write.done.complete(null);
+            } catch (RuntimeException e) {
+                write.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Cuts a failed group out of the segment, frames written in part included, or moves on to a new segment
+     * if that is not possible. Either way no record acknowledged later follows a torn frame, where replay
+     * of the segment would stop.
+     */
+    private void discardFrom(long start) {
+        try {
+            if (start >= 0) {
+                channel.truncate(start);
+                channel.force(false);
+                return;
+            }
+        } catch (IOException e) {
+            log.error("Failed to truncate journal segment {} to {}", segment, start, e);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close journal segment {}", segment, e);
+        }
+        try {
+            segment++;
+            channel = openSegment(segment);
+            log.warn("Journal continues in segment {}", segment);
+        } catch (IOException e) {
+            log.error("Failed to open journal segment {}", segment, e);
+        }
+    }
+
+    private void writeFully(ByteBuffer[] records) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer record : records) {
+            remaining += record.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(records);
+        }
+    }
+
+    private void forceQuietly() {
+        synchronized (channelLock) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                log.error("Periodic journal fsync failed", e);
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory(), number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private byte[] toJson(Object entity) {
+        try {
+            return objectMapper.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new JournalException("Failed to encode journal record", e);
+        }
+    }
+
+    private static class PendingWrite {
+        private final ByteBuffer[] records;
+        private final Runnable apply;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingWrite(ByteBuffer[] records, Runnable apply) {
+            this.records = records;
+            this.apply = apply;
+        }
+    }
+}
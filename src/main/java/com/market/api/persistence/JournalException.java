@@ -0,0 +1,11 @@
+package com.market.api.persistence;
+
+/**
+ * Exception thrown when a write cannot be made durable
+ */
+public class JournalException extends RuntimeException {
+
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
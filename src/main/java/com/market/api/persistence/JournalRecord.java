@@ -0,0 +1,111 @@
+package com.market.api.persistence;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * One framed journal record.
+ * <p>
+ * Frame layout: {@code int length | int crc32 | byte entityType | byte operation | payload}, where
+ * {@code length} and {@code crc32} cover everything after the CRC. A PUT payload is the JSON form of the
+ * entity; a DELETE payload is the 16-byte id.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class JournalRecord {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    public enum Operation {
+        PUT, DELETE
+    }
+
+    private final EntityType entityType;
+    private final Operation operation;
+    private final byte[] payload;
+
+    public UUID deletedId() {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public static ByteBuffer encodePut(EntityType type, byte[] json) {
+        return encode(type, Operation.PUT, json);
+    }
+
+    public static ByteBuffer encodeDelete(EntityType type, UUID id) {
+        byte[] payload = ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+        return encode(type, Operation.DELETE, payload);
+    }
+
+    private static ByteBuffer encode(EntityType type, Operation operation, byte[] payload) {
+        int bodyLength = 2 + payload.length;
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        frame.putInt(bodyLength);
+        frame.putInt(0);
+        frame.put(type.code());
+        frame.put((byte) operation.ordinal());
+        frame.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), HEADER_BYTES, bodyLength);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+        return frame.flip();
+    }
+
+    /**
+     * Reads the next record, returning null at a clean end of stream
+     *
+     * @throws CorruptRecordException if the frame is truncated or fails its checksum, as after a crash mid-write
+     */
+    public static JournalRecord read(DataInputStream in) throws IOException {
+        int bodyLength;
+        try {
+            bodyLength = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            int expectedCrc = in.readInt();
+            if (bodyLength < 2 || bodyLength > MAX_BODY_BYTES) {
+                throw new CorruptRecordException("Invalid record length: " + bodyLength);
+            }
+            byte[] body = new byte[bodyLength];
+            in.readFully(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new CorruptRecordException("Record checksum mismatch");
+            }
+
+            byte[] payload = new byte[bodyLength - 2];
+            System.arraycopy(body, 2, payload, 0, payload.length);
+            return new JournalRecord(EntityType.fromCode(body[0]), Operation.values()[body[1]], payload);
+        } catch (EOFException e) {
+            throw new CorruptRecordException("Truncated record");
+        }
+    }
+
+    /**
+     * Signals a torn or damaged record; everything after it in the same file is ignored
+     */
+    public static class CorruptRecordException extends IOException {
+
+        public CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.market.api.persistence;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a JSON array of entities from a seed file, handing each element to the caller as soon as it is parsed
+ * so no intermediate list of the whole file is built.
+ * <p>
+ * Locations are Spring resource strings ({@code classpath:...}, {@code file:...}); a location without a prefix
+ * is a file system path. Files ending in {@code .gz} are decompressed on the fly.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonSeedReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    /**
+     * Reads every element of the array at {@code location} into {@code sink}, returning how many were read
+     */
+    public <T> long read(String location, Class<T> type, Consumer<? super T> sink) throws IOException {
+        Resource resource = resolve(location);
+        // readValues on a stream iterates the elements of a top-level array one at a time
+        try (InputStream in = open(resource);
+             MappingIterator<T> elements = objectMapper.readerFor(type).readValues(in)) {
+            long count = 0;
+            while (elements.hasNextValue()) {
+                sink.accept(elements.nextValue());
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private Resource resolve(String location) {
+        if (location.contains(":") && !isWindowsPath(location)) {
+            return resourceLoader.getResource(location);
+        }
+        return new FileSystemResource(location);
+    }
+
+    private static InputStream open(Resource resource) throws IOException {
+        InputStream in = new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE);
+        String name = resource.getFilename();
+        if (name != null && name.endsWith(".gz")) {
+            try {
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            } catch (IOException e) {
+                // Not gzip, or empty: the header is read up front, and the stream would otherwise be left open
+                try {
+                    in.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+        return in;
+    }
+
+    private static boolean isWindowsPath(String location) {
+        return location.length() > 2 && Character.isLetter(location.charAt(0)) && location.charAt(1) == ':'
+                && (location.charAt(2) == '\\' || location.charAt(2) == '/');
+    }
+}
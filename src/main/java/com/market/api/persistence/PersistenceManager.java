@@ -0,0 +1,200 @@
+package com.market.api.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.jfr.RepositoryLoadEvent;
+import com.market.api.jfr.SnapshotEvent;
+import com.market.api.model.Instrument;
+import com.market.api.model.Trade;
+import com.market.api.model.User;
+import com.market.api.repository.InstrumentRepository;
+import com.market.api.repository.RepositoryInitializer;
+import com.market.api.repository.TradeRepository;
+import com.market.api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recovers repository state from the latest snapshot plus the journal segments written after it,
+ * and periodically snapshots the repositories so older segments can be deleted.
+ * <p>
+ * Replay is idempotent (a PUT overwrites by id, a DELETE of a missing id is a no-op), so a record that is
+ * both in the snapshot and in a replayed segment is harmless.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "market.persistence", name = "enabled", havingValue = "true")
+public class PersistenceManager {
+
+    static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private final PersistenceProperties properties;
+    private final Journal journal;
+    private final ObjectMapper objectMapper;
+    private final InstrumentRepository instrumentRepository;
+    private final UserRepository userRepository;
+    private final TradeRepository tradeRepository;
+    // Recovery starts from the loaded seed data and rebuilds positions through the initializer
+    private final RepositoryInitializer repositoryInitializer;
+
+    private ScheduledExecutorService snapshotScheduler;
+
+    @PostConstruct
+    public void recover() {
+        Path directory = journal.directory();
+        try {
+            Files.createDirectories(directory);
+
+            long replayFrom = 0;
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                replayFrom = loadSnapshot(snapshot);
+            }
+
+            long nextSegment = replayFrom;
+            for (Path segment : listSegments(directory)) {
+                long number = Journal.segmentNumber(segment);
+                if (number < replayFrom) {
+                    // Left behind by a crash between writing a snapshot and pruning the journal
+                    Files.delete(segment);
+                    continue;
+                }
+                replaySegment(segment);
+                nextSegment = Math.max(nextSegment, number + 1);
+            }
+
+            repositoryInitializer.rebuildPositions();
+            journal.open(nextSegment);
+        } catch (IOException e) {
+            log.error("Failed to recover persisted state from {}", directory, e);
+            throw new RuntimeException("Failed to recover persisted state", e);
+        }
+
+        long intervalMillis = properties.getSnapshotInterval().toMillis();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot of every repository and deletes the journal segments it supersedes
+     */
+    public synchronized void snapshot() throws IOException {
+        long started = System.nanoTime();
+        SnapshotEvent event = new SnapshotEvent();
+        event.begin();
+        long replayFrom = journal.rotate();
+
+        Path directory = journal.directory();
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        try (BinarySnapshotWriter writer = BinarySnapshotWriter.create(snapshot, replayFrom);
+             Stream<Trade> trades = tradeRepository.streamAll()) {
+            long instruments = writer.writeInstruments(instrumentRepository.findAll().iterator());
+            long users = writer.writeUsers(userRepository.findAll().iterator());
+            long tradeCount = writer.writeTrades(trades.iterator());
+            writer.commit();
+            event.finish("WRITE", snapshot.toString(), instruments, users, tradeCount, replayFrom);
+        }
+
+        for (Path segment : listSegments(directory)) {
+            if (Journal.segmentNumber(segment) < replayFrom) {
+                Files.delete(segment);
+            }
+        }
+        log.info("Snapshot written in {} ms, journal replay now starts at segment {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), replayFrom);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        snapshotQuietly();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write snapshot", e);
+        }
+    }
+
+    private long loadSnapshot(Path snapshot) throws IOException {
+        SnapshotEvent event = new SnapshotEvent();
+        event.begin();
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot)) {
+            // The snapshot is the complete state at the time it was taken, seed data included
+            instrumentRepository.clear();
+            userRepository.clear();
+            tradeRepository.clear();
+
+            long instruments = reader.readInstruments(instrumentRepository::restore);
+            long users = reader.readUsers(userRepository::restore);
+            long trades = reader.readTrades(tradeRepository::restore);
+            log.info("Loaded {} instruments, {} users and {} trades from snapshot {}", instruments, users, trades, snapshot);
+            event.finish("LOAD", snapshot.toString(), instruments, users, trades, reader.getReplayFrom());
+            return reader.getReplayFrom();
+        }
+    }
+
+    private void replaySegment(Path segment) throws IOException {
+        RepositoryLoadEvent event = new RepositoryLoadEvent();
+        event.begin();
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+            JournalRecord record;
+            while ((record = JournalRecord.read(in)) != null) {
+                apply(record);
+                records++;
+            }
+        } catch (JournalRecord.CorruptRecordException e) {
+            // A torn tail is expected after a crash mid-write; the write was never acknowledged
+            log.warn("Stopped replaying {} after {} records: {}", segment, records, e.getMessage());
+        }
+        log.info("Replayed {} records from {}", records, segment);
+        event.finish("journal", segment.toString(), records);
+    }
+
+    private void apply(JournalRecord record) throws IOException {
+        switch (record.getEntityType()) {
+            case INSTRUMENT -> {
+                if (record.getOperation() == JournalRecord.Operation.DELETE) {
+                    instrumentRepository.restoreDeletion(record.deletedId());
+                } else {
+                    instrumentRepository.restore(objectMapper.readValue(record.getPayload(), Instrument.class));
+                }
+            }
+            case USER -> userRepository.restore(objectMapper.readValue(record.getPayload(), User.class));
+            case TRADE -> tradeRepository.restore(objectMapper.readValue(record.getPayload(), Trade.class));
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Journal::isSegment)
+                    .sorted((a, b) -> Long.compare(Journal.segmentNumber(a), Journal.segmentNumber(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.market.api.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the optional on-disk journal and snapshots ({@code market.persistence.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.persistence")
+public class PersistenceProperties {
+
+    /**
+     * Journal every write and recover state on startup; when false the API is purely in-memory
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding journal segments and the snapshot
+     */
+    private String directory = "data";
+
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.BATCH;
+
+    /**
+     * How often the journal is forced under {@link FsyncPolicy#INTERVAL}
+     */
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+
+    /**
+     * How often a snapshot is taken so older journal segments can be dropped
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,40 @@
+package com.market.api.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where the repositories load their initial data from ({@code market.seed.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.seed")
+public class SeedProperties {
+
+    /**
+     * JSON array of instruments; a Spring resource location or a file path, optionally gzipped ({@code .gz})
+     */
+    private String instruments = "classpath:mockdata/instruments.json";
+
+    /**
+     * JSON array of users, located like {@link #instruments}
+     */
+    private String users = "classpath:mockdata/users.json";
+
+    /**
+     * JSON array of trades, located like {@link #instruments}
+     */
+    private String trades = "classpath:mockdata/trades.json";
+
+    /**
+     * Binary snapshot to seed from instead of the JSON files above; see {@link SnapshotConverter}
+     */
+    private String snapshot;
+
+    /**
+     * Start serving instruments and users before the trade history has finished loading;
+     * trade endpoints answer 503 until it has. Ignored when persistence is enabled.
+     */
+    private boolean deferTrades = false;
+}
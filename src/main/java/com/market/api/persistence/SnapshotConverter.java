@@ -0,0 +1,74 @@
+package com.market.api.persistence;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.market.api.model.Instrument;
+import com.market.api.model.Trade;
+import com.market.api.model.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts JSON seed files into a binary snapshot usable as {@code market.seed.snapshot}.
+ * <p>
+ * Usage: {@code SnapshotConverter <instruments.json> <users.json> <trades.json> <output>}; with only the output
+ * argument the bundled mock data is converted. The JSON arrays are streamed, so the trade file may be larger than the heap.
+ */
+public final class SnapshotConverter {
+
+    private static final String MOCK_DATA = "mockdata/";
+
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 4) {
+            System.err.println("Usage: SnapshotConverter [<instruments.json> <users.json> <trades.json>] <output>");
+            System.exit(1);
+        }
+        Path output = Path.of(args[args.length - 1]);
+        if (args.length == 1) {
+            convert(null, null, null, output);
+        } else {
+            convert(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]), output);
+        }
+        System.out.println("Snapshot written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Converts the given JSON files, falling back to the bundled mock data for any that are null
+     */
+    public static void convert(Path instruments, Path users, Path trades, Path output) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try (BinarySnapshotWriter writer = BinarySnapshotWriter.create(output, 0);
+             MappingIterator<Instrument> instrumentIterator = read(objectMapper, instruments, "instruments.json", Instrument.class);
+             MappingIterator<User> userIterator = read(objectMapper, users, "users.json", User.class);
+             MappingIterator<Trade> tradeIterator = read(objectMapper, trades, "trades.json", Trade.class)) {
+            writer.writeInstruments(instrumentIterator);
+            writer.writeUsers(userIterator);
+            writer.writeTrades(tradeIterator);
+            writer.commit();
+        }
+    }
+
+    private static <T> MappingIterator<T> read(ObjectMapper objectMapper, Path file, String mockData, Class<T> type)
+            throws IOException {
+        InputStream in = file != null
+                ? Files.newInputStream(file)
+                : SnapshotConverter.class.getClassLoader().getResourceAsStream(MOCK_DATA + mockData);
+        if (in == null) {
+            throw new IOException("Missing bundled mock data: " + MOCK_DATA + mockData);
+        }
+        ObjectReader reader = objectMapper.readerFor(type);
+        // readValues on a top-level array iterates its elements one at a time
+        return reader.readValues(in);
+    }
+}
@@ -0,0 +1,129 @@
+package com.market.api.repository;
+
+import com.market.api.metrics.OperationTimers;
+import com.market.api.model.Trade;
+import com.market.api.persistence.BinarySnapshotReader;
+import com.market.api.persistence.EntityType;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Seeding, journaling, id assignment and metrics shared by the trade stores; subclasses only store and query
+ */
+@Slf4j
+@RequiredArgsConstructor
+abstract class AbstractTradeRepository implements TradeRepository, MeterBinder {
+
+    private final Journal journal;
+    private final SeedProperties seedProperties;
+    private final JsonSeedReader seedReader;
+    private final OperationTimers timers = RepositoryMetrics.timers("trades");
+    private final OperationTimers.Operation findAllTimer = timers.operation("findAll");
+    private final OperationTimers.Operation findByIdTimer = timers.operation("findById");
+    private final OperationTimers.Operation saveTimer = timers.operation("save");
+    private final OperationTimers.Operation saveAllTimer = timers.operation("saveAll");
+
+    @Override
+    public void loadData() {
+        if (seedProperties.getSnapshot() != null) {
+            loadSnapshot(Path.of(seedProperties.getSnapshot()));
+            return;
+        }
+        try {
+            String location = seedProperties.getTrades();
+            seedReader.read(location, Trade.class, this::put);
+            log.info("Loaded {} trades from {}", count(), location);
+        } catch (IOException e) {
+            log.error("Failed to load trades data", e);
+            throw new RuntimeException("Failed to load trades data", e);
+        }
+    }
+
+    @Override
+    public List<Trade> findAll() {
+        long started = System.nanoTime();
+        List<Trade> all = doFindAll();
+        findAllTimer.record(started);
+        return all;
+    }
+
+    @Override
+    public Optional<Trade> findById(UUID id) {
+        long started = System.nanoTime();
+        Optional<Trade> trade = doFindById(id);
+        findByIdTimer.record(started);
+        return trade;
+    }
+
+    @Override
+    public List<Trade> findPage(TradeCursor after, int limit) {
+        return findPageInRange(null, null, after, limit);
+    }
+
+    @Override
+    public Trade save(Trade trade) {
+        long started = System.nanoTime();
+        if (trade.getId() == null) {
+            trade.setId(UUID.randomUUID());
+        }
+        journal.put(EntityType.TRADE, trade, () -> put(trade));
+        saveTimer.record(started);
+        log.info("Saved trade: {}", trade.getId());
+        return trade;
+    }
+
+    @Override
+    public List<Trade> saveAll(List<Trade> batch) {
+        long started = System.nanoTime();
+        for (Trade trade : batch) {
+            if (trade.getId() == null) {
+                trade.setId(UUID.randomUUID());
+            }
+        }
+        journal.putAll(EntityType.TRADE, batch, () -> batch.forEach(this::put));
+        saveAllTimer.record(started);
+        log.info("Saved batch of {} trades", batch.size());
+        return batch;
+    }
+
+    @Override
+    public void restore(Trade trade) {
+        put(trade);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+        RepositoryMetrics.registerSize(registry, "trades", this, TradeRepository::count);
+    }
+
+    protected abstract List<Trade> doFindAll();
+
+    protected abstract Optional<Trade> doFindById(UUID id);
+
+    /**
+     * Inserts or replaces a trade by id, keeping every index in step
+     */
+    protected abstract void put(Trade trade);
+
+    private void loadSnapshot(Path snapshot) {
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot)) {
+            reader.readTrades(this::put);
+            log.info("Loaded {} trades from snapshot {}", count(), snapshot);
+        } catch (IOException e) {
+            log.error("Failed to load trades snapshot", e);
+            throw new RuntimeException("Failed to load trades snapshot", e);
+        }
+    }
+}
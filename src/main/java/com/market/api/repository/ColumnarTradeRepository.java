@@ -0,0 +1,540 @@
+package com.market.api.repository;
+
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Trade store keeping trades column-wise in primitive arrays: UUIDs as two longs, quantity as int,
+ * side as byte and timestamp as UTC epoch microseconds, about 80 bytes per trade including indexes.
+ * {@link Trade} objects are only built for the trades a query returns.
+ * <p>
+ * Rows are found by id through an open-addressing hash table, and listed in time order through row lists
+ * (all trades, per user, per instrument). The lists are kept in time order as rows are added; a trade
+ * arriving out of order is inserted near the tail, where trades stamped just before the lock was taken land.
+ * A read-write lock guards the columns: queries run concurrently, writes one at a time. Timestamps are truncated to microseconds.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "market.trades", name = "store", havingValue = "columnar")
+public class ColumnarTradeRepository extends AbstractTradeRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int STREAM_BATCH_SIZE = 1024;
+
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final int NULL_QUANTITY = Integer.MIN_VALUE;
+    private static final byte NULL_SIDE = -1;
+    private static final TradeSide[] SIDES = TradeSide.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] idHigh;
+    private long[] idLow;
+    private long[] userHigh;
+    private long[] userLow;
+    private long[] instrumentHigh;
+    private long[] instrumentLow;
+    private long[] timestamps;
+    private int[] quantities;
+    private byte[] sides;
+    private int size;
+
+    // Slot values are row + 1, so 0 marks an empty slot
+    private int[] idSlots;
+
+    private RowList byTime;
+    private final Map<UUID, RowList> byUser = new HashMap<>();
+    private final Map<UUID, RowList> byInstrument = new HashMap<>();
+
+    public ColumnarTradeRepository(Journal journal, SeedProperties seedProperties, JsonSeedReader seedReader) {
+        super(journal, seedProperties, seedReader);
+        reset();
+    }
+
+    @Override
+    protected List<Trade> doFindAll() {
+        lock.readLock().lock();
+        try {
+            List<Trade> all = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                all.add(toTrade(row));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Trade> findPageInRange(LocalDateTime from, LocalDateTime to, TradeCursor after, int limit) {
+        return page(() -> byTime, from, to, after, limit);
+    }
+
+    @Override
+    public List<Trade> findPageByUserId(UUID userId, TradeCursor after, int limit) {
+        return page(() -> byUser.get(userId), null, null, after, limit);
+    }
+
+    @Override
+    public List<Trade> findPageByInstrumentId(UUID instrumentId, TradeCursor after, int limit) {
+        return page(() -> byInstrument.get(instrumentId), null, null, after, limit);
+    }
+
+    /**
+     * Walks the time order one page at a time, so only a page of {@link Trade} objects exists at once
+     */
+    @Override
+    public Stream<Trade> streamAll() {
+        Iterator<Trade> pages = new Iterator<>() {
+            private List<Trade> page = findPage(null, STREAM_BATCH_SIZE);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (position == page.size() && page.size() == STREAM_BATCH_SIZE) {
+                    page = findPage(TradeRepository.cursorOf(page.get(position - 1)), STREAM_BATCH_SIZE);
+                    position = 0;
+                }
+                return position < page.size();
+            }
+
+            @Override
+            public Trade next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    protected Optional<Trade> doFindById(UUID id) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(id);
+            return row < 0 ? Optional.empty() : Optional.of(toTrade(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        lock.readLock().lock();
+        try {
+            return findRow(id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void put(Trade trade) {
+        UUID id = Objects.requireNonNull(trade.getId(), "Trade id is required");
+        lock.writeLock().lock();
+        try {
+            int row = findRow(id);
+            if (row < 0) {
+                row = append(trade);
+            } else {
+                replace(row, trade);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int append(Trade trade) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        write(row, trade);
+        insertSlot(row);
+        byTime.add(row);
+        index(byUser, trade.getUserId(), row);
+        index(byInstrument, trade.getInstrumentId(), row);
+        return row;
+    }
+
+    private void replace(int row, Trade trade) {
+        UUID previousUser = uuid(userHigh[row], userLow[row]);
+        UUID previousInstrument = uuid(instrumentHigh[row], instrumentLow[row]);
+        long timestamp = trade.getTimestamp() == null ? NULL_TIMESTAMP : toMicros(trade.getTimestamp());
+        // A row that moves in time leaves every list before it is rewritten, while it can still be found in them
+        boolean moved = timestamp != timestamps[row];
+        boolean userChanged = moved || !Objects.equals(previousUser, trade.getUserId());
+        boolean instrumentChanged = moved || !Objects.equals(previousInstrument, trade.getInstrumentId());
+        if (moved) {
+            byTime.remove(row);
+        }
+        if (userChanged) {
+            unindex(byUser, previousUser, row);
+        }
+        if (instrumentChanged) {
+            unindex(byInstrument, previousInstrument, row);
+        }
+
+        write(row, trade);
+
+        if (moved) {
+            byTime.add(row);
+        }
+        if (userChanged) {
+            index(byUser, trade.getUserId(), row);
+        }
+        if (instrumentChanged) {
+            index(byInstrument, trade.getInstrumentId(), row);
+        }
+    }
+
+    private void write(int row, Trade trade) {
+        idHigh[row] = trade.getId().getMostSignificantBits();
+        idLow[row] = trade.getId().getLeastSignificantBits();
+        userHigh[row] = high(trade.getUserId());
+        userLow[row] = low(trade.getUserId());
+        instrumentHigh[row] = high(trade.getInstrumentId());
+        instrumentLow[row] = low(trade.getInstrumentId());
+        quantities[row] = trade.getQuantity() == null ? NULL_QUANTITY : trade.getQuantity();
+        sides[row] = trade.getSide() == null ? NULL_SIDE : (byte) trade.getSide().ordinal();
+        timestamps[row] = trade.getTimestamp() == null ? NULL_TIMESTAMP : toMicros(trade.getTimestamp());
+    }
+
+    private Trade toTrade(int row) {
+        return Trade.builder()
+                .id(new UUID(idHigh[row], idLow[row]))
+                .userId(uuid(userHigh[row], userLow[row]))
+                .instrumentId(uuid(instrumentHigh[row], instrumentLow[row]))
+                .quantity(quantities[row] == NULL_QUANTITY ? null : quantities[row])
+                .side(sides[row] == NULL_SIDE ? null : SIDES[sides[row]])
+                .timestamp(timestamps[row] == NULL_TIMESTAMP ? null : fromMicros(timestamps[row]))
+                .build();
+    }
+
+    private List<Trade> page(Supplier<RowList> source, LocalDateTime from, LocalDateTime to,
+                             TradeCursor after, int limit) {
+        // The lower bound is whichever comes later: the start of the range or the cursor
+        Key lower = from == null ? null : Key.startOf(from);
+        boolean lowerInclusive = true;
+        if (after != null) {
+            Key cursor = Key.of(after);
+            if (lower == null || cursor.compareTo(lower) >= 0) {
+                lower = cursor;
+                lowerInclusive = false;
+            }
+        }
+        Key upper = to == null ? null : Key.startOf(to);
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            RowList rows = source.get();
+            if (rows == null) {
+                return new ArrayList<>();
+            }
+            return scan(rows, lower, lowerInclusive, upper, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Trade> scan(RowList rows, Key lower, boolean lowerInclusive, Key upper, int limit) {
+        int position = lower == null ? 0 : rows.search(lower, lowerInclusive);
+        List<Trade> page = new ArrayList<>(Math.min(limit, 1024));
+        while (position < rows.size && page.size() < limit) {
+            int row = rows.rows[position++];
+            if (upper != null && compare(row, upper) >= 0) {
+                break;
+            }
+            page.add(toTrade(row));
+        }
+        return page;
+    }
+
+    private int compareRows(int a, int b) {
+        int result = Long.compare(timestamps[a], timestamps[b]);
+        if (result == 0) {
+            result = Long.compare(idHigh[a], idHigh[b]);
+        }
+        if (result == 0) {
+            result = Long.compare(idLow[a], idLow[b]);
+        }
+        return result;
+    }
+
+    private int compare(int row, Key key) {
+        int result = Long.compare(timestamps[row], key.timestamp());
+        if (result == 0) {
+            result = Long.compare(idHigh[row], key.high());
+        }
+        if (result == 0) {
+            result = Long.compare(idLow[row], key.low());
+        }
+        return result;
+    }
+
+    private int findRow(UUID id) {
+        if (id == null) {
+            return -1;
+        }
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        int mask = idSlots.length - 1;
+        for (int slot = hash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int value = idSlots[slot];
+            if (value == 0) {
+                return -1;
+            }
+            int row = value - 1;
+            if (idHigh[row] == high && idLow[row] == low) {
+                return row;
+            }
+        }
+    }
+
+    private void insertSlot(int row) {
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > idSlots.length) {
+            int[] previous = idSlots;
+            idSlots = new int[previous.length * 2];
+            for (int value : previous) {
+                if (value != 0) {
+                    placeSlot(value - 1);
+                }
+            }
+        }
+        placeSlot(row);
+    }
+
+    private void placeSlot(int row) {
+        int mask = idSlots.length - 1;
+        int slot = hash(idHigh[row], idLow[row]) & mask;
+        while (idSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idSlots[slot] = row + 1;
+    }
+
+    private static int hash(long high, long low) {
+        long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= idHigh.length) {
+            return;
+        }
+        int grown = Math.max(capacity, idHigh.length + (idHigh.length >> 1));
+        idHigh = Arrays.copyOf(idHigh, grown);
+        idLow = Arrays.copyOf(idLow, grown);
+        userHigh = Arrays.copyOf(userHigh, grown);
+        userLow = Arrays.copyOf(userLow, grown);
+        instrumentHigh = Arrays.copyOf(instrumentHigh, grown);
+        instrumentLow = Arrays.copyOf(instrumentLow, grown);
+        timestamps = Arrays.copyOf(timestamps, grown);
+        quantities = Arrays.copyOf(quantities, grown);
+        sides = Arrays.copyOf(sides, grown);
+    }
+
+    private void reset() {
+        idHigh = new long[INITIAL_CAPACITY];
+        idLow = new long[INITIAL_CAPACITY];
+        userHigh = new long[INITIAL_CAPACITY];
+        userLow = new long[INITIAL_CAPACITY];
+        instrumentHigh = new long[INITIAL_CAPACITY];
+        instrumentLow = new long[INITIAL_CAPACITY];
+        timestamps = new long[INITIAL_CAPACITY];
+        quantities = new int[INITIAL_CAPACITY];
+        sides = new byte[INITIAL_CAPACITY];
+        size = 0;
+        idSlots = new int[INITIAL_CAPACITY * 2];
+        byTime = new RowList();
+        byUser.clear();
+        byInstrument.clear();
+    }
+
+    private void index(Map<UUID, RowList> index, UUID owner, int row) {
+        if (owner != null) {
+            index.computeIfAbsent(owner, k -> new RowList()).add(row);
+        }
+    }
+
+    private static void unindex(Map<UUID, RowList> index, UUID owner, int row) {
+        if (owner != null) {
+            RowList rows = index.get(owner);
+            if (rows != null) {
+                rows.remove(row);
+            }
+        }
+    }
+
+    private static long high(UUID id) {
+        return id == null ? 0L : id.getMostSignificantBits();
+    }
+
+    private static long low(UUID id) {
+        return id == null ? 0L : id.getLeastSignificantBits();
+    }
+
+    private static UUID uuid(long high, long low) {
+        // The nil UUID stands for a missing reference; it is never assigned to an entity
+        return high == 0L && low == 0L ? null : new UUID(high, low);
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Position in the time order, comparable with a row
+     */
+    private record Key(long timestamp, long high, long low) implements Comparable<Key> {
+
+        static Key of(TradeCursor cursor) {
+            long timestamp = cursor.getTimestamp() == null ? NULL_TIMESTAMP : toMicros(cursor.getTimestamp());
+            return new Key(timestamp, cursor.getId().getMostSignificantBits(), cursor.getId().getLeastSignificantBits());
+        }
+
+        /**
+         * Sorts before every trade stamped at or after {@code timestamp}; rounds up so that sub-microsecond
+         * bounds never admit an earlier trade
+         */
+        static Key startOf(LocalDateTime timestamp) {
+            long micros = toMicros(timestamp);
+            if (timestamp.getNano() % 1_000 != 0) {
+                micros++;
+            }
+            return new Key(micros, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(timestamp, other.timestamp);
+            if (result == 0) {
+                result = Long.compare(high, other.high);
+            }
+            if (result == 0) {
+                result = Long.compare(low, other.low);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Growable list of rows in time order
+     */
+    private final class RowList {
+
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            int position = insertionPoint(row);
+            System.arraycopy(rows, position, rows, position + 1, size - position);
+            rows[position] = row;
+            size++;
+        }
+
+        /**
+         * Removes a row, which must still hold the values it was added with
+         */
+        void remove(int row) {
+            int position = insertionPoint(row) - 1;
+            if (position >= 0 && rows[position] == row) {
+                System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /**
+         * First position whose row is at or after ({@code inclusive}) or strictly after the key
+         */
+        int search(Key key, boolean inclusive) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int result = compare(rows[middle], key);
+                if (result < 0 || (!inclusive && result == 0)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Position after every row ordered at or before the given one. Rows mostly arrive in order or just behind
+         * the tail, so the search gallops back from the tail before bisecting.
+         */
+        private int insertionPoint(int row) {
+            int high = size;
+            int step = 1;
+            while (high > 0 && compareRows(rows[high - 1], row) > 0) {
+                int next = Math.max(high - step, 0);
+                if (compareRows(rows[next], row) <= 0) {
+                    // rows[next] is at or before the row, rows[high - 1] after it
+                    int low = next + 1;
+                    high--;
+                    while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        if (compareRows(rows[middle], row) <= 0) {
+                            low = middle + 1;
+                        } else {
+                            high = middle;
+                        }
+                    }
+                    return low;
+                }
+                high = next;
+                step *= 2;
+            }
+            return high;
+        }
+    }
+}
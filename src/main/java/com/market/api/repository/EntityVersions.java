@@ -0,0 +1,47 @@
+package com.market.api.repository;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version numbers of one repository's entities and of the repository as a whole, for conditional requests.
+ * <p>
+ * Every change takes the next number of a sequence seeded from the clock, so a restarted application does not
+ * hand out a version a client may still hold for different data. Callers record a change only once it is
+ * visible, so a reader that takes the version before the data never pairs a new version with old data.
+ */
+final class EntityVersions {
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() << 20);
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong collection = new AtomicLong(sequence.get());
+
+    void changed(UUID id) {
+        long version = sequence.incrementAndGet();
+        versions.merge(id, version, Math::max);
+        collection.accumulateAndGet(version, Math::max);
+    }
+
+    void removed(UUID id) {
+        versions.remove(id);
+        collection.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    void cleared() {
+        versions.clear();
+        collection.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * The entity's version, or 0 if there is no such entity
+     */
+    long of(UUID id) {
+        return versions.getOrDefault(id, 0L);
+    }
+
+    long collection() {
+        return collection.get();
+    }
+}
@@ -1,40 +1,68 @@
 package com.market.api.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.metrics.OperationTimers;
 import com.market.api.model.Instrument;
-import jakarta.annotation.PostConstruct;
+import com.market.api.model.InstrumentType;
+import com.market.api.persistence.BinarySnapshotReader;
+import com.market.api.persistence.EntityType;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * Repository for managing Instrument data in memory
+ * Repository for managing Instrument data in memory, with secondary indexes by case-normalized symbol,
+ * by type and by price, and a type-ahead search index over symbols and names
  */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
-public class InstrumentRepository {
+public class InstrumentRepository implements MeterBinder {
 
-    private final ObjectMapper objectMapper;
+    private final Journal journal;
+    private final SeedProperties seedProperties;
+    private final JsonSeedReader seedReader;
     private final Map<UUID, Instrument> instruments = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, UUID> idsBySymbol = new ConcurrentSkipListMap<>();
+    private final Map<InstrumentType, Set<UUID>> idsByType = typeBuckets();
+    private final NavigableSet<PriceKey> idsByPrice = new ConcurrentSkipListSet<>();
+    private final InstrumentSearchIndex searchIndex = new InstrumentSearchIndex();
+    private final EntityVersions versions = new EntityVersions();
+    private final List<Consumer<UUID>> changeListeners = new CopyOnWriteArrayList<>();
+    private final OperationTimers timers = RepositoryMetrics.timers("instruments");
+    private final OperationTimers.Operation findAllTimer = timers.operation("findAll");
+    private final OperationTimers.Operation findByIdTimer = timers.operation("findById");
+    private final OperationTimers.Operation saveTimer = timers.operation("save");
+    private final OperationTimers.Operation deleteTimer = timers.operation("deleteById");
 
-    @PostConstruct
+    /**
+     * Loads the seed data; called by {@link RepositoryInitializer}
+     */
     public void loadData() {
+        if (seedProperties.getSnapshot() != null) {
+            loadSnapshot(Path.of(seedProperties.getSnapshot()));
+            return;
+        }
         try {
-            ClassPathResource resource = new ClassPathResource("mockdata/instruments.json");
-            List<Instrument> instrumentList = objectMapper.readValue(
-                    resource.getInputStream(),
-                    new TypeReference<List<Instrument>>() {
-                    });
-
-            instrumentList.forEach(instrument -> instruments.put(instrument.getId(), instrument));
-            log.info("Loaded {} instruments from JSON", instruments.size());
+            String location = seedProperties.getInstruments();
+            seedReader.read(location, Instrument.class, this::put);
+            log.info("Loaded {} instruments from {}", instruments.size(), location);
         } catch (IOException e) {
             log.error("Failed to load instruments data", e);
             throw new RuntimeException("Failed to load instruments data", e);
@@ -42,28 +70,269 @@ public class InstrumentRepository {
     }
 
     public List<Instrument> findAll() {
-        return new ArrayList<>(instruments.values());
+        long started = System.nanoTime();
+        List<Instrument> all = new ArrayList<>(instruments.values());
+        findAllTimer.record(started);
+        return all;
     }
 
     public Optional<Instrument> findById(UUID id) {
-        return Optional.ofNullable(instruments.get(id));
+        long started = System.nanoTime();
+        Optional<Instrument> instrument = Optional.ofNullable(instruments.get(id));
+        findByIdTimer.record(started);
+        return instrument;
+    }
+
+    public Optional<Instrument> findBySymbol(String symbol) {
+        UUID id = idsBySymbol.get(normalizeSymbol(symbol));
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    /**
+     * Instruments matching every given criterion, where null matches anything. Candidates are streamed from
+     * the most selective index in use (symbol prefix, then price range, then type) and checked against
+     * the remaining criteria, without copying the repository.
+     *
+     * @param minPrice inclusive lower price bound
+     * @param maxPrice inclusive upper price bound
+     * @param symbolPrefix case-insensitive symbol prefix
+     */
+    public Stream<Instrument> findMatching(InstrumentType type, BigDecimal minPrice, BigDecimal maxPrice, String symbolPrefix) {
+        String prefix = normalizeSymbol(symbolPrefix);
+        Stream<UUID> candidates;
+        if (prefix != null) {
+            candidates = idsBySymbol.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().stream();
+        } else if (minPrice != null || maxPrice != null) {
+            candidates = priceRange(minPrice, maxPrice).stream().map(PriceKey::id);
+        } else if (type != null) {
+            candidates = idsByType.get(type).stream();
+        } else {
+            return instruments.values().stream();
+        }
+        // Re-checked against the instrument itself, which an update may have replaced since it was indexed
+        return candidates.map(instruments::get)
+                .filter(Objects::nonNull)
+                .filter(instrument -> type == null || type == instrument.getType())
+                .filter(instrument -> minPrice == null || (instrument.getPrice() != null && instrument.getPrice().compareTo(minPrice) >= 0))
+                .filter(instrument -> maxPrice == null || (instrument.getPrice() != null && instrument.getPrice().compareTo(maxPrice) <= 0))
+                .filter(instrument -> prefix == null || (instrument.getSymbol() != null && normalizeSymbol(instrument.getSymbol()).startsWith(prefix)));
+    }
+
+    /**
+     * Instruments whose symbol or name words start with, or nearly match, every word of the query, best first
+     */
+    public List<Instrument> search(String query, int limit) {
+        List<Instrument> matches = new ArrayList<>();
+        for (UUID id : searchIndex.search(query, limit)) {
+            Instrument instrument = instruments.get(id);
+            if (instrument != null) {
+                matches.add(instrument);
+            }
+        }
+        return matches;
     }
 
     public Instrument save(Instrument instrument) {
+        long started = System.nanoTime();
         if (instrument.getId() == null) {
             instrument.setId(UUID.randomUUID());
         }
-        instruments.put(instrument.getId(), instrument);
+        journal.put(EntityType.INSTRUMENT, instrument, () -> put(instrument));
+        saveTimer.record(started);
         log.info("Saved instrument: {}", instrument.getId());
         return instrument;
     }
 
     public void deleteById(UUID id) {
-        instruments.remove(id);
+        long started = System.nanoTime();
+        journal.delete(EntityType.INSTRUMENT, id, () -> remove(id));
+        deleteTimer.record(started);
         log.info("Deleted instrument: {}", id);
     }
 
     public boolean existsById(UUID id) {
         return instruments.containsKey(id);
     }
+
+    public long count() {
+        return instruments.size();
+    }
+
+    /**
+     * Registers a callback run with the id of every instrument saved, restored or deleted once the change is
+     * visible, or with null when the repository is cleared. It runs while writes are held up, so it must be quick.
+     */
+    public void addChangeListener(Consumer<UUID> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Changes with every save of the instrument; 0 if there is no such instrument
+     */
+    public long version(UUID id) {
+        return versions.of(id);
+    }
+
+    /**
+     * Changes with every save, deletion or reload of any instrument
+     */
+    public long collectionVersion() {
+        return versions.collection();
+    }
+
+    /**
+     * Puts an instrument recovered from a snapshot or the journal, without journaling it again
+     */
+    public void restore(Instrument instrument) {
+        put(instrument);
+    }
+
+    /**
+     * Removes an instrument whose deletion was recovered from the journal, without journaling it again
+     */
+    public void restoreDeletion(UUID id) {
+        remove(id);
+    }
+
+    public synchronized void clear() {
+        instruments.clear();
+        idsBySymbol.clear();
+        idsByType.values().forEach(Set::clear);
+        idsByPrice.clear();
+        searchIndex.clear();
+        versions.cleared();
+        changeListeners.forEach(listener -> listener.accept(null));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+        RepositoryMetrics.registerSize(registry, "instruments", instruments, Map::size);
+    }
+
+    /**
+     * The symbol index key: trimmed and upper-cased
+     */
+    public static String normalizeSymbol(String symbol) {
+        return symbol == null ? null : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private void loadSnapshot(Path snapshot) {
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot)) {
+            reader.readInstruments(this::put);
+            log.info("Loaded {} instruments from snapshot {}", instruments.size(), snapshot);
+        } catch (IOException e) {
+            log.error("Failed to load instruments snapshot", e);
+            throw new RuntimeException("Failed to load instruments snapshot", e);
+        }
+    }
+
+    // Writers are serialised so the map and its indexes change together; readers never lock. A stored
+    // instrument is never changed, only replaced, so the one replaced tells what to unindex.
+    private synchronized void put(Instrument instrument) {
+        UUID id = instrument.getId();
+        IndexKeys keys = IndexKeys.of(instrument);
+        IndexKeys previous = IndexKeys.of(instruments.put(id, instrument));
+        unindex(id, previous, keys);
+        if (keys.symbol() != null) {
+            idsBySymbol.put(keys.symbol(), id);
+        }
+        if (keys.type() != null) {
+            idsByType.get(keys.type()).add(id);
+        }
+        if (keys.price() != null) {
+            idsByPrice.add(new PriceKey(keys.price(), id));
+        }
+        reindexSearch(id, previous, keys);
+        versions.changed(id);
+        changeListeners.forEach(listener -> listener.accept(id));
+    }
+
+    private synchronized void remove(UUID id) {
+        Instrument removed = instruments.remove(id);
+        if (removed != null) {
+            IndexKeys previous = IndexKeys.of(removed);
+            unindex(id, previous, IndexKeys.NONE);
+            reindexSearch(id, previous, IndexKeys.NONE);
+            versions.removed(id);
+            changeListeners.forEach(listener -> listener.accept(id));
+        }
+    }
+
+    /**
+     * Drops the entries of the previous keys that the current keys no longer have, so an unchanged key
+     * never briefly disappears from its index
+     */
+    private void unindex(UUID id, IndexKeys previous, IndexKeys current) {
+        if (previous.symbol() != null && !previous.symbol().equals(current.symbol())) {
+            idsBySymbol.remove(previous.symbol(), id);
+        }
+        if (previous.type() != null && previous.type() != current.type()) {
+            idsByType.get(previous.type()).remove(id);
+        }
+        if (previous.price() != null && (current.price() == null || previous.price().compareTo(current.price()) != 0)) {
+            idsByPrice.remove(new PriceKey(previous.price(), id));
+        }
+    }
+
+    private void reindexSearch(UUID id, IndexKeys previous, IndexKeys current) {
+        if (!Objects.equals(previous.symbol(), current.symbol()) || !Objects.equals(previous.name(), current.name())) {
+            searchIndex.update(id, previous.symbol(), previous.name(), current.symbol(), current.name());
+        }
+    }
+
+    private NavigableSet<PriceKey> priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null) {
+            return idsByPrice.headSet(PriceKey.last(maxPrice), true);
+        }
+        if (maxPrice == null) {
+            return idsByPrice.tailSet(PriceKey.first(minPrice), true);
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            return Collections.emptyNavigableSet();
+        }
+        return idsByPrice.subSet(PriceKey.first(minPrice), true, PriceKey.last(maxPrice), true);
+    }
+
+    private static Map<InstrumentType, Set<UUID>> typeBuckets() {
+        // Every type has a bucket up front, so the map itself is never modified after construction
+        Map<InstrumentType, Set<UUID>> buckets = new EnumMap<>(InstrumentType.class);
+        for (InstrumentType type : InstrumentType.values()) {
+            buckets.put(type, ConcurrentHashMap.newKeySet());
+        }
+        return buckets;
+    }
+
+    private record IndexKeys(String symbol, String name, InstrumentType type, BigDecimal price) {
+
+        static final IndexKeys NONE = new IndexKeys(null, null, null, null);
+
+        static IndexKeys of(Instrument instrument) {
+            return instrument == null ? NONE : new IndexKeys(normalizeSymbol(instrument.getSymbol()),
+                    instrument.getName(), instrument.getType(), instrument.getPrice());
+        }
+    }
+
+    /**
+     * Price index entry; the id breaks ties so instruments with equal prices are kept apart
+     */
+    private record PriceKey(BigDecimal price, UUID id) implements Comparable<PriceKey> {
+
+        private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+        private static final UUID MAX_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        static PriceKey first(BigDecimal price) {
+            return new PriceKey(price, MIN_ID);
+        }
+
+        static PriceKey last(BigDecimal price) {
+            return new PriceKey(price, MAX_ID);
+        }
+
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : id.compareTo(other.id);
+        }
+    }
 }
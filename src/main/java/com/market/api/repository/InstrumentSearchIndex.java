@@ -0,0 +1,484 @@
+package com.market.api.repository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type-ahead search over instrument symbols and name words.
+ * <p>
+ * Terms are lower-cased into a character trie. A query word matches the terms it is a prefix of; a word of
+ * three or more characters that is a prefix of nothing falls back to term prefixes within a small edit
+ * distance. Candidates come from the query word with the fewest matches, up to a budget, and are checked
+ * against the other words through the terms kept per instrument, so work is bounded by the budget rather
+ * than the index size.
+ * <p>
+ * Writers must be serialised by the caller. Nodes are copy-on-write, so searches never lock.
+ */
+final class InstrumentSearchIndex {
+
+    static final int SYMBOL_EXACT = 100;
+    static final int SYMBOL_PREFIX = 80;
+    static final int NAME_EXACT = 70;
+    static final int NAME_PREFIX = 60;
+    static final int FUZZY = 40;
+
+    private static final int FUZZY_MIN_LENGTH = 3;
+    private static final int CANDIDATES_PER_RESULT = 8;
+    private static final int MIN_CANDIDATES = 64;
+    // The other words of a query only filter the lead word's candidates, so it needs more of them
+    private static final int MULTI_WORD_FACTOR = 4;
+
+    private final Node root = new Node();
+    private final Map<UUID, Terms> termsById = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the instrument under its current symbol and name, then drops the terms only the previous
+     * ones had, so a term both share stays searchable throughout
+     */
+    void update(UUID id, String previousSymbol, String previousName, String symbol, String name) {
+        Terms previous = Terms.of(previousSymbol, previousName);
+        Terms current = Terms.of(symbol, name);
+        if (current.symbol() != null) {
+            insert(current.symbol(), new Posting(id, true));
+        }
+        for (String word : current.words()) {
+            insert(word, new Posting(id, false));
+        }
+        if (current.isEmpty()) {
+            termsById.remove(id);
+        } else {
+            termsById.put(id, current);
+        }
+        if (previous.symbol() != null && !previous.symbol().equals(current.symbol())) {
+            delete(previous.symbol(), new Posting(id, true));
+        }
+        for (String word : previous.words()) {
+            if (!current.hasWord(word)) {
+                delete(word, new Posting(id, false));
+            }
+        }
+    }
+
+    void clear() {
+        root.branches = Branches.EMPTY;
+        root.postings = Posting.NONE;
+        root.count = 0;
+        termsById.clear();
+    }
+
+    /**
+     * Ids of the best matches, best first. Every word of the query has to match and scores add up across
+     * words; a symbol match outranks a name match, an exact term a longer one, and ties keep a stable order.
+     */
+    List<UUID> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        String lead = words.get(0);
+        Node leadNode = find(lead);
+        for (String word : words.subList(1, words.size())) {
+            Node node = find(word);
+            if (count(node) < count(leadNode)) {
+                lead = word;
+                leadNode = node;
+            }
+        }
+
+        Map<UUID, Integer> scores = new HashMap<>();
+        int budget = Math.max(MIN_CANDIDATES, limit * CANDIDATES_PER_RESULT) * (words.size() > 1 ? MULTI_WORD_FACTOR : 1);
+        if (leadNode != null && leadNode.count > 0) {
+            collectPrefix(leadNode, lead.length(), scores, budget);
+        } else if (lead.length() >= FUZZY_MIN_LENGTH) {
+            collectFuzzy(lead, scores, budget);
+        }
+
+        if (words.size() > 1) {
+            Iterator<Map.Entry<UUID, Integer>> candidates = scores.entrySet().iterator();
+            while (candidates.hasNext()) {
+                Map.Entry<UUID, Integer> candidate = candidates.next();
+                int score = scoreRest(termsById.get(candidate.getKey()), words, lead);
+                if (score == 0) {
+                    candidates.remove();
+                } else {
+                    candidate.setValue(candidate.getValue() + score);
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Summed score of every query word but the lead against one instrument's terms, or 0 if one does not match
+     */
+    private static int scoreRest(Terms terms, List<String> words, String lead) {
+        if (terms == null) {
+            return 0;
+        }
+        int total = 0;
+        boolean leadSkipped = false;
+        for (String word : words) {
+            if (!leadSkipped && word.equals(lead)) {
+                leadSkipped = true;
+                continue;
+            }
+            int score = terms.score(word);
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    private static int prefixScore(boolean symbol, int extra) {
+        int capped = Math.min(extra, 9);
+        return symbol
+                ? (capped == 0 ? SYMBOL_EXACT : SYMBOL_PREFIX - capped)
+                : (capped == 0 ? NAME_EXACT : NAME_PREFIX - capped);
+    }
+
+    private static int maxEdits(String word) {
+        return word.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Depth-first in term order below the node matching the whole word
+     */
+    private static void collectPrefix(Node start, int wordLength, Map<UUID, Integer> scores, int budget) {
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        nodes.push(start);
+        depths.push(wordLength);
+        int collected = 0;
+        while (!nodes.isEmpty() && collected < budget) {
+            Node node = nodes.pop();
+            int depth = depths.pop();
+            for (Posting posting : node.postings) {
+                if (collected == budget) {
+                    return;
+                }
+                scores.merge(posting.id(), prefixScore(posting.symbol(), depth - wordLength), Math::max);
+                collected++;
+            }
+            Node[] children = node.branches.children;
+            for (int i = children.length - 1; i >= 0; i--) {
+                nodes.push(children[i]);
+                depths.push(depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Walks the trie with one row of the Levenshtein table per node, pruning branches that can no longer
+     * come within the allowed distance. A term matches when some prefix of it does. The first character
+     * has to match, as typos rarely start a word and every branch of the root would otherwise be walked.
+     */
+    private void collectFuzzy(String word, Map<UUID, Integer> scores, int budget) {
+        Node start = root.child(word.charAt(0));
+        if (start == null) {
+            return;
+        }
+        int[] first = new int[word.length() + 1];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = i;
+        }
+        walkFuzzy(start, word.charAt(0), word, first, maxEdits(word), scores, budget, new int[1]);
+    }
+
+    private void walkFuzzy(Node node, char key, String word, int[] previous, int maxEdits,
+                           Map<UUID, Integer> scores, int budget, int[] collected) {
+        int[] row = nextRow(previous, word, key);
+        int distance = row[row.length - 1];
+        if (distance <= maxEdits) {
+            // Every term below extends a prefix within reach of the word
+            int score = FUZZY - 10 * distance;
+            Deque<Node> nodes = new ArrayDeque<>();
+            nodes.push(node);
+            while (!nodes.isEmpty() && collected[0] < budget) {
+                Node next = nodes.pop();
+                for (Posting posting : next.postings) {
+                    if (collected[0] == budget) {
+                        return;
+                    }
+                    scores.merge(posting.id(), score, Math::max);
+                    collected[0]++;
+                }
+                for (Node child : next.branches.children) {
+                    nodes.push(child);
+                }
+            }
+            return;
+        }
+        if (min(row) > maxEdits) {
+            return;
+        }
+        Branches branches = node.branches;
+        for (int i = 0; i < branches.keys.length && collected[0] < budget; i++) {
+            walkFuzzy(branches.children[i], branches.keys[i], word, row, maxEdits, scores, budget, collected);
+        }
+    }
+
+    /**
+     * The Levenshtein row of the word against a term prefix one character longer than the previous row's
+     */
+    private static int[] nextRow(int[] previous, String word, char key) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previous[i - 1] + (word.charAt(i - 1) == key ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1], previous[i]) + 1);
+        }
+        return row;
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * Edit distance from the word to the closest prefix of the term, or {@code maxEdits + 1} if beyond it or
+     * the first characters differ
+     */
+    private static int prefixDistance(String term, String word, int maxEdits) {
+        if (term.isEmpty() || term.charAt(0) != word.charAt(0)) {
+            return maxEdits + 1;
+        }
+        int[] row = new int[word.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        int best = row[row.length - 1];
+        for (int j = 0; j < term.length() && min(row) <= maxEdits; j++) {
+            row = nextRow(row, word, term.charAt(j));
+            best = Math.min(best, row[row.length - 1]);
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+
+    private Node find(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length() && node != null; i++) {
+            node = node.child(term.charAt(i));
+        }
+        return node;
+    }
+
+    private void insert(String term, Posting posting) {
+        Node[] path = new Node[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(term.charAt(i));
+        }
+        if (path[term.length()].add(posting)) {
+            for (Node node : path) {
+                node.count++;
+            }
+        }
+    }
+
+    private void delete(String term, Posting posting) {
+        Node[] path = new Node[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        if (!path[term.length()].remove(posting)) {
+            return;
+        }
+        for (Node node : path) {
+            node.count--;
+        }
+        // Prune nodes left without postings or children, bottom up
+        for (int i = term.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(term.charAt(i - 1));
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * What one instrument is indexed under, kept to check the query words beyond the lead
+     */
+    private record Terms(String symbol, String[] words) {
+
+        static Terms of(String symbol, String name) {
+            String term = symbol == null || symbol.isBlank() ? null : symbol.trim().toLowerCase(Locale.ROOT);
+            // Distinct, so an instrument is posted once per word even if its name repeats it
+            return new Terms(term, InstrumentSearchIndex.words(name).stream().distinct().toArray(String[]::new));
+        }
+
+        boolean isEmpty() {
+            return symbol == null && words.length == 0;
+        }
+
+        boolean hasWord(String word) {
+            for (String candidate : words) {
+                if (candidate.equals(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Best score of the word against these terms, as the trie search would give it, or 0 if none matches
+         */
+        int score(String word) {
+            int best = 0;
+            if (symbol != null && symbol.startsWith(word)) {
+                best = prefixScore(true, symbol.length() - word.length());
+            }
+            for (String candidate : words) {
+                if (candidate.startsWith(word)) {
+                    best = Math.max(best, prefixScore(false, candidate.length() - word.length()));
+                }
+            }
+            if (best > 0 || word.length() < FUZZY_MIN_LENGTH) {
+                return best;
+            }
+            int maxEdits = maxEdits(word);
+            int distance = symbol == null ? maxEdits + 1 : prefixDistance(symbol, word, maxEdits);
+            for (String candidate : words) {
+                distance = Math.min(distance, prefixDistance(candidate, word, maxEdits));
+            }
+            return distance <= maxEdits ? FUZZY - 10 * distance : 0;
+        }
+    }
+
+    private record Posting(UUID id, boolean symbol) {
+
+        static final Posting[] NONE = new Posting[0];
+    }
+
+    /**
+     * Keys and children replaced together, so a reader never sees one without the other
+     */
+    private record Branches(char[] keys, Node[] children) {
+
+        static final Branches EMPTY = new Branches(new char[0], new Node[0]);
+    }
+
+    private static final class Node {
+
+        volatile Branches branches = Branches.EMPTY;
+        volatile Posting[] postings = Posting.NONE;
+        // Postings in this subtree; read without synchronisation, as a stale count only affects the choice of lead word
+        int count;
+
+        Node child(char key) {
+            Branches current = branches;
+            int index = Arrays.binarySearch(current.keys, key);
+            return index >= 0 ? current.children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            Branches current = branches;
+            int index = Arrays.binarySearch(current.keys, key);
+            if (index >= 0) {
+                return current.children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] keys = new char[current.keys.length + 1];
+            Node[] children = new Node[keys.length];
+            System.arraycopy(current.keys, 0, keys, 0, insertAt);
+            System.arraycopy(current.children, 0, children, 0, insertAt);
+            keys[insertAt] = key;
+            children[insertAt] = child;
+            System.arraycopy(current.keys, insertAt, keys, insertAt + 1, current.keys.length - insertAt);
+            System.arraycopy(current.children, insertAt, children, insertAt + 1, current.keys.length - insertAt);
+            branches = new Branches(keys, children);
+            return child;
+        }
+
+        void removeChild(char key) {
+            Branches current = branches;
+            int index = Arrays.binarySearch(current.keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] keys = new char[current.keys.length - 1];
+            Node[] children = new Node[keys.length];
+            System.arraycopy(current.keys, 0, keys, 0, index);
+            System.arraycopy(current.children, 0, children, 0, index);
+            System.arraycopy(current.keys, index + 1, keys, index, keys.length - index);
+            System.arraycopy(current.children, index + 1, children, index, keys.length - index);
+            branches = new Branches(keys, children);
+        }
+
+        boolean add(Posting posting) {
+            Posting[] current = postings;
+            for (Posting existing : current) {
+                if (existing.equals(posting)) {
+                    return false;
+                }
+            }
+            // Symbol postings go first, so a budget cut short by a common word still reaches them
+            Posting[] updated = new Posting[current.length + 1];
+            int at = posting.symbol() ? 0 : current.length;
+            System.arraycopy(current, 0, updated, 0, at);
+            updated[at] = posting;
+            System.arraycopy(current, at, updated, at + 1, current.length - at);
+            postings = updated;
+            return true;
+        }
+
+        boolean remove(Posting posting) {
+            Posting[] current = postings;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(posting)) {
+                    Posting[] updated = new Posting[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    postings = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return postings.length == 0 && branches.keys.length == 0;
+        }
+    }
+}
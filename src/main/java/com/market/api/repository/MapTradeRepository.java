@@ -0,0 +1,158 @@
+package com.market.api.repository;
+
+import com.market.api.model.Trade;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Trade store keeping one {@link Trade} per id in a {@link ConcurrentHashMap}, plus skip-list indexes by time,
+ * user and instrument for cursor pagination
+ */
+@Repository
+@ConditionalOnProperty(prefix = "market.trades", name = "store", havingValue = "map", matchIfMissing = true)
+public class MapTradeRepository extends AbstractTradeRepository {
+
+    private static final ConcurrentNavigableMap<TradeCursor, Trade> EMPTY_INDEX = new ConcurrentSkipListMap<>();
+
+    private final Map<UUID, Trade> trades = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<TradeCursor, Trade> tradesByTime = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ConcurrentNavigableMap<TradeCursor, Trade>> tradesByUser = new ConcurrentHashMap<>();
+    private final Map<UUID, ConcurrentNavigableMap<TradeCursor, Trade>> tradesByInstrument = new ConcurrentHashMap<>();
+
+    public MapTradeRepository(Journal journal, SeedProperties seedProperties, JsonSeedReader seedReader) {
+        super(journal, seedProperties, seedReader);
+    }
+
+    @Override
+    protected List<Trade> doFindAll() {
+        return new ArrayList<>(trades.values());
+    }
+
+    /**
+     * Seeks the time index to the lower bound, so a range scan costs O(log n + k)
+     */
+    @Override
+    public List<Trade> findPageInRange(LocalDateTime from, LocalDateTime to, TradeCursor after, int limit) {
+        return page(tradesByTime, from, to, after, limit);
+    }
+
+    /**
+     * Served from the per-user index in O(k)
+     */
+    @Override
+    public List<Trade> findPageByUserId(UUID userId, TradeCursor after, int limit) {
+        return page(tradesByUser.getOrDefault(userId, EMPTY_INDEX), null, null, after, limit);
+    }
+
+    /**
+     * Served from the per-instrument index in O(k)
+     */
+    @Override
+    public List<Trade> findPageByInstrumentId(UUID instrumentId, TradeCursor after, int limit) {
+        return page(tradesByInstrument.getOrDefault(instrumentId, EMPTY_INDEX), null, null, after, limit);
+    }
+
+    @Override
+    public Stream<Trade> streamAll() {
+        return tradesByTime.values().stream();
+    }
+
+    @Override
+    protected Optional<Trade> doFindById(UUID id) {
+        return Optional.ofNullable(trades.get(id));
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return trades.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return trades.size();
+    }
+
+    @Override
+    public void clear() {
+        trades.clear();
+        tradesByTime.clear();
+        tradesByUser.clear();
+        tradesByInstrument.clear();
+    }
+
+    @Override
+    protected void put(Trade trade) {
+        // compute() serializes writers of the same id, keeping the time index in step with the primary map
+        trades.compute(trade.getId(), (id, previous) -> {
+            if (previous != null) {
+                TradeCursor previousKey = TradeRepository.cursorOf(previous);
+                tradesByTime.remove(previousKey);
+                unindex(tradesByUser, previous.getUserId(), previousKey);
+                unindex(tradesByInstrument, previous.getInstrumentId(), previousKey);
+            }
+            TradeCursor key = TradeRepository.cursorOf(trade);
+            tradesByTime.put(key, trade);
+            index(tradesByUser, trade.getUserId(), key, trade);
+            index(tradesByInstrument, trade.getInstrumentId(), key, trade);
+            return trade;
+        });
+    }
+
+    private static void index(Map<UUID, ConcurrentNavigableMap<TradeCursor, Trade>> index,
+                              UUID owner, TradeCursor key, Trade trade) {
+        if (owner != null) {
+            index.computeIfAbsent(owner, k -> new ConcurrentSkipListMap<>()).put(key, trade);
+        }
+    }
+
+    private static void unindex(Map<UUID, ConcurrentNavigableMap<TradeCursor, Trade>> index,
+                                UUID owner, TradeCursor key) {
+        if (owner != null) {
+            NavigableMap<TradeCursor, Trade> trades = index.get(owner);
+            if (trades != null) {
+                trades.remove(key);
+            }
+        }
+    }
+
+    private static List<Trade> page(NavigableMap<TradeCursor, Trade> index, LocalDateTime from, LocalDateTime to,
+                                    TradeCursor after, int limit) {
+        // The lower bound is whichever comes later: the start of the range or the cursor
+        TradeCursor lower = from == null ? null : TradeCursor.startOf(from);
+        boolean lowerInclusive = true;
+        if (after != null && (lower == null || after.compareTo(lower) >= 0)) {
+            lower = after;
+            lowerInclusive = false;
+        }
+        TradeCursor upper = to == null ? null : TradeCursor.startOf(to);
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            return new ArrayList<>();
+        }
+
+        NavigableMap<TradeCursor, Trade> view = index;
+        if (lower != null) {
+            view = view.tailMap(lower, lowerInclusive);
+        }
+        if (upper != null) {
+            view = view.headMap(upper, false);
+        }
+        List<Trade> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Trade trade : view.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(trade);
+        }
+        return page;
+    }
+}
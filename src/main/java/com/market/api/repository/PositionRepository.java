@@ -0,0 +1,114 @@
+package com.market.api.repository;
+
+import com.market.api.metrics.OperationTimers;
+import com.market.api.model.Position;
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Ledger of net positions per user and instrument, maintained incrementally as trades are created.
+ * <p>
+ * Each fill updates one position with {@link Map#compute}, so concurrent fills on the same position never lose
+ * an update and reads never see a half-applied one. The average price is the weighted cost of the open
+ * quantity: adding to a position blends the fill price in, reducing it keeps the average, and a position
+ * that is closed or flipped starts over at the fill price. Flat positions are dropped.
+ */
+@Slf4j
+@Repository
+public class PositionRepository implements MeterBinder {
+
+    private final Map<UUID, Map<UUID, Position>> positionsByUser = new ConcurrentHashMap<>();
+    private final OperationTimers timers = RepositoryMetrics.timers("positions");
+    private final OperationTimers.Operation findByUserIdTimer = timers.operation("findByUserId");
+    private final OperationTimers.Operation applyTimer = timers.operation("apply");
+
+    public List<Position> findByUserId(UUID userId) {
+        long started = System.nanoTime();
+        Map<UUID, Position> positions = positionsByUser.get(userId);
+        List<Position> found = positions == null ? new ArrayList<>() : new ArrayList<>(positions.values());
+        findByUserIdTimer.record(started);
+        return found;
+    }
+
+    public Optional<Position> findByUserIdAndInstrumentId(UUID userId, UUID instrumentId) {
+        Map<UUID, Position> positions = positionsByUser.get(userId);
+        return positions == null ? Optional.empty() : Optional.ofNullable(positions.get(instrumentId));
+    }
+
+    /**
+     * Applies one fill of {@code trade} at {@code price} to the trading user's position
+     */
+    public void apply(Trade trade, BigDecimal price) {
+        if (trade.getUserId() == null || trade.getInstrumentId() == null
+                || trade.getQuantity() == null || trade.getSide() == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        long delta = trade.getSide() == TradeSide.BUY ? trade.getQuantity() : -(long) trade.getQuantity();
+        positionsByUser.computeIfAbsent(trade.getUserId(), k -> new ConcurrentHashMap<>())
+                .compute(trade.getInstrumentId(), (instrumentId, current) -> fill(trade, current, delta, price));
+        applyTimer.record(started);
+    }
+
+    /**
+     * Replaces the ledger with one aggregated from the given trades, which must be in time order.
+     * Historical fills are priced with {@code priceOf}, since trades do not record their fill price.
+     */
+    public void rebuild(Stream<Trade> trades, Function<UUID, BigDecimal> priceOf) {
+        positionsByUser.clear();
+        long[] count = {0};
+        trades.forEach(trade -> {
+            apply(trade, priceOf.apply(trade.getInstrumentId()));
+            count[0]++;
+        });
+        log.info("Rebuilt positions from {} trades", count[0]);
+    }
+
+    public void clear() {
+        positionsByUser.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+        // Counted when scraped, which is far rarer than fills
+        RepositoryMetrics.registerSize(registry, "positions", positionsByUser,
+                byUser -> byUser.values().stream().mapToInt(Map::size).sum());
+    }
+
+    private static Position fill(Trade trade, Position current, long delta, BigDecimal price) {
+        long quantity = current == null ? 0 : current.getQuantity();
+        BigDecimal averagePrice = current == null ? null : current.getAveragePrice();
+        long next = quantity + delta;
+        if (next == 0) {
+            return null;
+        }
+
+        if (quantity == 0 || Long.signum(quantity) != Long.signum(next)) {
+            // Opened, or flipped from long to short (or back): the open quantity was all filled at this price
+            averagePrice = price;
+        } else if (Math.abs(next) > Math.abs(quantity) && price != null && averagePrice != null) {
+            averagePrice = averagePrice.multiply(BigDecimal.valueOf(Math.abs(quantity)))
+                    .add(price.multiply(BigDecimal.valueOf(Math.abs(delta))))
+                    .divide(BigDecimal.valueOf(Math.abs(next)), MathContext.DECIMAL64);
+        }
+
+        return Position.builder()
+                .userId(trade.getUserId())
+                .instrumentId(trade.getInstrumentId())
+                .quantity(next)
+                .averagePrice(averagePrice)
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.market.api.repository;
+
+import com.market.api.jfr.RepositoryLoadEvent;
+import com.market.api.model.Instrument;
+import com.market.api.model.Trade;
+import com.market.api.persistence.PersistenceProperties;
+import com.market.api.persistence.SeedProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Loads the seed data of all repositories concurrently, one loader thread per repository, then rebuilds the
+ * position ledger from the trade history.
+ * <p>
+ * Startup (and so readiness) waits for every load to finish, unless {@code market.seed.defer-trades} is set:
+ * then the application starts as soon as instruments and users are loaded and trade endpoints answer
+ * 503 until the trade history is in. Deferral is ignored when persistence is enabled, because recovery
+ * must start from the complete seed data.
+ * <p>
+ * With virtual threads enabled ({@code spring.threads.virtual.enabled} on Java 21) the loads run on virtual
+ * threads, like request handling.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RepositoryInitializer {
+
+    private final SeedProperties seedProperties;
+    private final PersistenceProperties persistenceProperties;
+    private final InstrumentRepository instrumentRepository;
+    private final UserRepository userRepository;
+    private final TradeRepository tradeRepository;
+    private final PositionRepository positionRepository;
+    private final Environment environment;
+
+    private volatile boolean tradesLoaded;
+
+    @PostConstruct
+    public void initialize() {
+        long started = System.nanoTime();
+        Executor executor = newLoaderExecutor();
+        CompletableFuture<Void> instruments = CompletableFuture.runAsync(() -> load("instruments",
+                seedProperties.getInstruments(), instrumentRepository::loadData, instrumentRepository::count), executor);
+        CompletableFuture<Void> users = CompletableFuture.runAsync(() -> load("users",
+                seedProperties.getUsers(), userRepository::loadData, userRepository::count), executor);
+        // Positions are priced from instruments, so they are rebuilt once both are loaded
+        CompletableFuture<Void> trades = CompletableFuture.runAsync(() -> load("trades",
+                        seedProperties.getTrades(), tradeRepository::loadData, tradeRepository::count), executor)
+                .thenCombine(instruments, (ignored, alsoIgnored) -> null)
+                .thenRun(this::rebuildPositions)
+                .thenRun(() -> tradesLoaded = true);
+        // Submitted loads still run to completion; this only lets the threads exit afterwards
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+
+        boolean deferTrades = seedProperties.isDeferTrades() && !persistenceProperties.isEnabled();
+        if (seedProperties.isDeferTrades() && !deferTrades) {
+            log.warn("Ignoring market.seed.defer-trades because persistence is enabled");
+        }
+
+        if (deferTrades) {
+            await(CompletableFuture.allOf(instruments, users));
+            log.info("Instruments and users loaded in {} ms, trade history still loading", elapsedMillis(started));
+            trades.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.error("Failed to load trade history", error);
+                } else {
+                    log.info("Trade history loaded in {} ms", elapsedMillis(started));
+                }
+            });
+        } else {
+            await(CompletableFuture.allOf(instruments, users, trades));
+            log.info("Repositories loaded in {} ms", elapsedMillis(started));
+        }
+    }
+
+    /**
+     * Whether the trade repository has finished loading its seed data
+     */
+    public boolean isTradesLoaded() {
+        return tradesLoaded;
+    }
+
+    /**
+     * Re-aggregates the position ledger from the trade history, pricing fills at the current instrument prices
+     */
+    public void rebuildPositions() {
+        try (Stream<Trade> trades = tradeRepository.streamAll()) {
+            positionRepository.rebuild(trades, instrumentId -> instrumentRepository.findById(instrumentId)
+                    .map(Instrument::getPrice)
+                    .orElse(null));
+        }
+    }
+
+    /**
+     * Runs a repository's load, recording it as a {@link RepositoryLoadEvent}
+     *
+     * @param seed where the repository loads from unless a snapshot is configured
+     */
+    private void load(String repository, String seed, Runnable loader, LongSupplier count) {
+        RepositoryLoadEvent event = new RepositoryLoadEvent();
+        event.begin();
+        loader.run();
+        String source = seedProperties.getSnapshot() != null ? seedProperties.getSnapshot() : seed;
+        event.finish(repository, source, count.getAsLong());
+    }
+
+    private static void await(CompletableFuture<Void> loads) {
+        try {
+            loads.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private Executor newLoaderExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("repository-loader-");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "repository-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
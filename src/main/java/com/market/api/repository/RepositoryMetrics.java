@@ -0,0 +1,28 @@
+package com.market.api.repository;
+
+import com.market.api.metrics.OperationTimers;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The meters every repository publishes, tagged with the repository's name
+ */
+final class RepositoryMetrics {
+
+    private RepositoryMetrics() {
+    }
+
+    static OperationTimers timers(String repository) {
+        return new OperationTimers("market.repository.operations", "Time taken by repository operations",
+                "repository", repository);
+    }
+
+    static <T> void registerSize(MeterRegistry registry, String repository, T state, ToDoubleFunction<T> size) {
+        Gauge.builder("market.repository.size", state, size)
+                .description("Entities held in memory")
+                .tag("repository", repository)
+                .register(registry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.market.api.repository;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position of a trade in the time-ordered trade index.
+ * Trades are ordered by timestamp, then by id so that trades sharing a timestamp keep a stable order.
+ */
+@Value
+public class TradeCursor implements Comparable<TradeCursor> {
+
+    private static final Comparator<TradeCursor> ORDER = Comparator
+            .comparing(TradeCursor::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TradeCursor::getId);
+
+    private static final String SEPARATOR = "|";
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    LocalDateTime timestamp;
+    UUID id;
+
+    @Override
+    public int compareTo(TradeCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    /**
+     * Returns the position just before every trade stamped at or after the given time
+     */
+    public static TradeCursor startOf(LocalDateTime timestamp) {
+        return new TradeCursor(timestamp, MIN_ID);
+    }
+
+    /**
+     * Encodes this position as an opaque, URL-safe token for clients to pass back as {@code after}
+     */
+    public String encode() {
+        String raw = (timestamp == null ? "" : timestamp.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static TradeCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        String timestamp = raw.substring(0, separator);
+        try {
+            return new TradeCursor(
+                    timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
@@ -1,64 +1,76 @@
 package com.market.api.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.market.api.model.Trade;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.stereotype.Repository;
 
-import java.io.IOException;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
- * Repository for managing Trade data in memory
+ * Repository for managing Trade data in memory.
+ * <p>
+ * The backing store is chosen with {@code market.trades.store}: {@code map} (default, {@link MapTradeRepository})
+ * keeps one object per trade in concurrent maps, {@code columnar} ({@link ColumnarTradeRepository}) keeps trades
+ * in primitive column arrays for a much smaller heap footprint.
  */
-@Slf4j
-@Repository
-@RequiredArgsConstructor
-public class TradeRepository {
-
-    private final ObjectMapper objectMapper;
-    private final Map<UUID, Trade> trades = new ConcurrentHashMap<>();
-
-    @PostConstruct
-    public void loadData() {
-        try {
-            ClassPathResource resource = new ClassPathResource("mockdata/trades.json");
-            List<Trade> tradeList = objectMapper.readValue(
-                    resource.getInputStream(),
-                    new TypeReference<List<Trade>>() {
-                    });
-
-            tradeList.forEach(trade -> trades.put(trade.getId(), trade));
-            log.info("Loaded {} trades from JSON", trades.size());
-        } catch (IOException e) {
-            log.error("Failed to load trades data", e);
-            throw new RuntimeException("Failed to load trades data", e);
-        }
-    }
+public interface TradeRepository {
 
-    public List<Trade> findAll() {
-        return new ArrayList<>(trades.values());
-    }
+    /**
+     * Loads the seed data; called by {@link RepositoryInitializer}
+     */
+    void loadData();
 
-    public Optional<Trade> findById(UUID id) {
-        return Optional.ofNullable(trades.get(id));
-    }
+    List<Trade> findAll();
 
-    public Trade save(Trade trade) {
-        if (trade.getId() == null) {
-            trade.setId(UUID.randomUUID());
-        }
-        trades.put(trade.getId(), trade);
-        log.info("Saved trade: {}", trade.getId());
-        return trade;
-    }
+    /**
+     * Returns up to {@code limit} trades in time order, starting strictly after the given cursor
+     * (or from the oldest trade when the cursor is null)
+     */
+    List<Trade> findPage(TradeCursor after, int limit);
+
+    /**
+     * Same as {@link #findPage} restricted to trades stamped in [{@code from}, {@code to}); either bound may be null
+     */
+    List<Trade> findPageInRange(LocalDateTime from, LocalDateTime to, TradeCursor after, int limit);
+
+    /**
+     * Same as {@link #findPage} restricted to one user's trades
+     */
+    List<Trade> findPageByUserId(UUID userId, TradeCursor after, int limit);
+
+    /**
+     * Same as {@link #findPage} restricted to one instrument's trades
+     */
+    List<Trade> findPageByInstrumentId(UUID instrumentId, TradeCursor after, int limit);
+
+    /**
+     * Lazily walks every trade in time order. The stream is weakly consistent and never materializes the store.
+     */
+    Stream<Trade> streamAll();
+
+    Optional<Trade> findById(UUID id);
+
+    Trade save(Trade trade);
+
+    /**
+     * Saves a batch of trades, logging once for the whole batch instead of once per trade
+     */
+    List<Trade> saveAll(List<Trade> batch);
+
+    boolean existsById(UUID id);
+
+    long count();
+
+    /**
+     * Puts a trade recovered from a snapshot or the journal, without journaling it again
+     */
+    void restore(Trade trade);
+
+    void clear();
 
-    public boolean existsById(UUID id) {
-        return trades.containsKey(id);
+    static TradeCursor cursorOf(Trade trade) {
+        return new TradeCursor(trade.getTimestamp(), trade.getId());
     }
 }
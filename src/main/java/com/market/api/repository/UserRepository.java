@@ -1,15 +1,20 @@
 package com.market.api.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.metrics.OperationTimers;
 import com.market.api.model.User;
-import jakarta.annotation.PostConstruct;
+import com.market.api.persistence.BinarySnapshotReader;
+import com.market.api.persistence.EntityType;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.SeedProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -19,22 +24,30 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 @Repository
 @RequiredArgsConstructor
-public class UserRepository {
+public class UserRepository implements MeterBinder {
 
-    private final ObjectMapper objectMapper;
+    private final Journal journal;
+    private final SeedProperties seedProperties;
+    private final JsonSeedReader seedReader;
     private final Map<UUID, User> users = new ConcurrentHashMap<>();
+    private final EntityVersions versions = new EntityVersions();
+    private final OperationTimers timers = RepositoryMetrics.timers("users");
+    private final OperationTimers.Operation findAllTimer = timers.operation("findAll");
+    private final OperationTimers.Operation findByIdTimer = timers.operation("findById");
+    private final OperationTimers.Operation saveTimer = timers.operation("save");
 
-    @PostConstruct
+    /**
+     * Loads the seed data; called by {@link RepositoryInitializer}
+     */
     public void loadData() {
+        if (seedProperties.getSnapshot() != null) {
+            loadSnapshot(Path.of(seedProperties.getSnapshot()));
+            return;
+        }
         try {
-            ClassPathResource resource = new ClassPathResource("mockdata/users.json");
-            List<User> userList = objectMapper.readValue(
-                    resource.getInputStream(),
-                    new TypeReference<List<User>>() {
-                    });
-
-            userList.forEach(user -> users.put(user.getId(), user));
-            log.info("Loaded {} users from JSON", users.size());
+            String location = seedProperties.getUsers();
+            seedReader.read(location, User.class, this::put);
+            log.info("Loaded {} users from {}", users.size(), location);
         } catch (IOException e) {
             log.error("Failed to load users data", e);
             throw new RuntimeException("Failed to load users data", e);
@@ -42,18 +55,26 @@ public class UserRepository {
     }
 
     public List<User> findAll() {
-        return new ArrayList<>(users.values());
+        long started = System.nanoTime();
+        List<User> all = new ArrayList<>(users.values());
+        findAllTimer.record(started);
+        return all;
     }
 
     public Optional<User> findById(UUID id) {
-        return Optional.ofNullable(users.get(id));
+        long started = System.nanoTime();
+        Optional<User> user = Optional.ofNullable(users.get(id));
+        findByIdTimer.record(started);
+        return user;
     }
 
     public User save(User user) {
+        long started = System.nanoTime();
         if (user.getId() == null) {
             user.setId(UUID.randomUUID());
         }
-        users.put(user.getId(), user);
+        journal.put(EntityType.USER, user, () -> put(user));
+        saveTimer.record(started);
         log.info("Saved user: {}", user.getId());
         return user;
     }
@@ -61,4 +82,56 @@ public class UserRepository {
     public boolean existsById(UUID id) {
         return users.containsKey(id);
     }
+
+    public long count() {
+        return users.size();
+    }
+
+    /**
+     * Changes with every save of the user; 0 if there is no such user
+     */
+    public long version(UUID id) {
+        return versions.of(id);
+    }
+
+    /**
+     * Changes with every save or reload of any user
+     */
+    public long collectionVersion() {
+        return versions.collection();
+    }
+
+    /**
+     * Puts a user recovered from a snapshot or the journal, without journaling it again
+     */
+    public void restore(User user) {
+        put(user);
+    }
+
+    public void clear() {
+        users.clear();
+        versions.cleared();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+        RepositoryMetrics.registerSize(registry, "users", users, Map::size);
+    }
+
+    private void loadSnapshot(Path snapshot) {
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot)) {
+            reader.readUsers(this::put);
+            log.info("Loaded {} users from snapshot {}", users.size(), snapshot);
+        } catch (IOException e) {
+            log.error("Failed to load users snapshot", e);
+            throw new RuntimeException("Failed to load users snapshot", e);
+        }
+    }
+
+    // Saves of one user are serialised by the callers (trade settlement holds the user's lock)
+    private void put(User user) {
+        users.put(user.getId(), user);
+        versions.changed(user.getId());
+    }
 }
@@ -0,0 +1,31 @@
+package com.market.api.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the in-memory caches ({@code market.cache.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.cache")
+public class CacheProperties {
+
+    private Responses responses = new Responses();
+
+    @Data
+    public static class Responses {
+
+        /**
+         * Whether serialized instrument responses are kept; when off every request maps and serializes afresh
+         */
+        private boolean enabled = true;
+
+        /**
+         * Total size of the kept response bodies; the least recently used go first beyond it
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+}
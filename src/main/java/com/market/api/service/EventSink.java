@@ -0,0 +1,34 @@
+package com.market.api.service;
+
+import java.io.IOException;
+
+/**
+ * The client end of a server-sent event stream, whichever web stack serves it. Sending may block while the
+ * client is not keeping up, so it is only done from the stream services' dispatcher threads.
+ */
+public interface EventSink {
+
+    /**
+     * Sends an event whose data is written as JSON
+     *
+     * @param id the event id, or null for none
+     * @throws IOException if the client has gone away or the stream has ended
+     */
+    void send(String name, String id, Object data) throws IOException;
+
+    /**
+     * Sends a comment line, which clients ignore
+     *
+     * @throws IOException if the client has gone away or the stream has ended
+     */
+    void comment(String text) throws IOException;
+
+    void complete();
+
+    void completeWithError(Throwable error);
+
+    /**
+     * Registers a callback run once the stream has ended, however it ended
+     */
+    void onClose(Runnable callback);
+}
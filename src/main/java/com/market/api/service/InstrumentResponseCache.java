@@ -0,0 +1,241 @@
+package com.market.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.jfr.ResponseSerializationEvent;
+import com.market.api.repository.InstrumentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON bodies of the instrument read endpoints, so a hit skips both mapping and serialization.
+ * <p>
+ * Each body is kept with the repository version it was built from and only served while that version is
+ * current, so a body built concurrently with a save is never served after it. Saves and deletions also drop
+ * the bodies they affect straight away: the instrument's own and every collection. The total size is
+ * bounded, evicting bodies that have not been used recently first.
+ * <p>
+ * Hits take no lock: they read a concurrent map and mark the body as used. Stores, evictions and invalidations
+ * are serialized. Eviction is a clock: bodies are kept in the order they were stored, and one that was used
+ * since eviction last passed it gets a second chance at the back instead of being evicted.
+ */
+@Slf4j
+@Component
+public class InstrumentResponseCache implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>(256);
+    // The same entries in clock order, the next candidate for eviction first; guarded by this
+    private final LinkedHashMap<Object, Entry> clock = new LinkedHashMap<>(256);
+    private final Set<CollectionKey> collectionKeys = new HashSet<>();
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public InstrumentResponseCache(ObjectMapper objectMapper, CacheProperties cacheProperties,
+                                   InstrumentRepository instrumentRepository) {
+        this.objectMapper = objectMapper;
+        this.enabled = cacheProperties.getResponses().isEnabled();
+        this.maxBytes = cacheProperties.getResponses().getMaxSize().toBytes();
+        instrumentRepository.addChangeListener(this::invalidate);
+    }
+
+    /**
+     * The body for one instrument at the given version, built and serialized only on a miss
+     */
+    public byte[] instrument(UUID id, long version, Supplier<?> body) {
+        return get(new InstrumentKey(id), version, body);
+    }
+
+    /**
+     * The body for one view of the instrument collection at the given collection version
+     *
+     * @param view everything the body depends on besides the data, such as filters and projected fields
+     */
+    public byte[] collection(String view, long version, Supplier<?> body) {
+        return get(new CollectionKey(view), version, body);
+    }
+
+    /**
+     * Drops the bodies a change to the instrument affects; a null id drops everything
+     */
+    public synchronized void invalidate(UUID id) {
+        if (id == null) {
+            entries.clear();
+            clock.clear();
+            collectionKeys.clear();
+            bytes = 0;
+            return;
+        }
+        remove(new InstrumentKey(id));
+        for (CollectionKey key : collectionKeys) {
+            entries.remove(key);
+            Entry entry = clock.remove(key);
+            if (entry != null) {
+                bytes -= entry.body.length;
+            }
+        }
+        collectionKeys.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("market.cache.responses.hits", hits, LongAdder::sum)
+                .description("Instrument responses served from the cache")
+                .register(registry);
+        FunctionCounter.builder("market.cache.responses.misses", misses, LongAdder::sum)
+                .description("Instrument responses mapped and serialized because none was cached at the current version")
+                .register(registry);
+        FunctionCounter.builder("market.cache.responses.evictions", evictions, LongAdder::sum)
+                .description("Cached responses evicted to stay within the size limit")
+                .register(registry);
+        Gauge.builder("market.cache.responses.hit.ratio", this, InstrumentResponseCache::hitRatio)
+                .description("Share of instrument responses served from the cache since startup")
+                .register(registry);
+        Gauge.builder("market.cache.responses.size", this, InstrumentResponseCache::size)
+                .description("Bytes of cached response bodies")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    synchronized long size() {
+        return bytes;
+    }
+
+    private byte[] get(Object key, long version, Supplier<?> body) {
+        if (enabled) {
+            byte[] cached = lookup(key, version);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        // Built outside the lock, so a slow miss does not hold up other stores or invalidations
+        byte[] serialized = serialize(key, body.get());
+        if (enabled) {
+            store(key, version, serialized);
+        }
+        return serialized;
+    }
+
+    private byte[] lookup(Object key, long version) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            return null;
+        }
+        // Checked first, so a hot body is not written to on every hit
+        if (!entry.used) {
+            entry.used = true;
+        }
+        return entry.body;
+    }
+
+    private synchronized void store(Object key, long version, byte[] body) {
+        if (body.length > maxBytes) {
+            return;
+        }
+        Entry previous = clock.get(key);
+        if (previous != null && previous.version > version) {
+            // A newer body was stored while this one was being built
+            return;
+        }
+        remove(key);
+        Entry entry = new Entry(version, body);
+        entries.put(key, entry);
+        clock.put(key, entry);
+        bytes += body.length;
+        if (key instanceof CollectionKey collectionKey) {
+            collectionKeys.add(collectionKey);
+        }
+
+        // Every pass clears the used marks it meets, so this ends within two rounds of the clock
+        while (bytes > maxBytes && !clock.isEmpty()) {
+            Iterator<Map.Entry<Object, Entry>> hand = clock.entrySet().iterator();
+            Map.Entry<Object, Entry> next = hand.next();
+            Object candidate = next.getKey();
+            Entry evicted = next.getValue();
+            hand.remove();
+            if (evicted.used) {
+                evicted.used = false;
+                clock.put(candidate, evicted);
+                continue;
+            }
+            entries.remove(candidate);
+            bytes -= evicted.body.length;
+            if (candidate instanceof CollectionKey collectionKey) {
+                collectionKeys.remove(collectionKey);
+            }
+            evictions.increment();
+        }
+    }
+
+    private void remove(Object key) {
+        entries.remove(key);
+        Entry entry = clock.remove(key);
+        if (entry != null) {
+            bytes -= entry.body.length;
+            if (key instanceof CollectionKey collectionKey) {
+                collectionKeys.remove(collectionKey);
+            }
+        }
+    }
+
+    private byte[] serialize(Object key, Object body) {
+        ResponseSerializationEvent event = new ResponseSerializationEvent();
+        event.begin();
+        byte[] serialized;
+        try {
+            serialized = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        event.finish(key, serialized.length);
+        return serialized;
+    }
+
+    private record InstrumentKey(UUID id) {
+    }
+
+    private record CollectionKey(String view) {
+    }
+
+    private static final class Entry {
+
+        private final long version;
+        private final byte[] body;
+        // Set by hits, cleared by eviction as it passes
+        private volatile boolean used;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
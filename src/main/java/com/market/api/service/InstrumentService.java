@@ -3,15 +3,24 @@ package com.market.api.service;
 import com.market.api.dto.InstrumentCreateRequest;
 import com.market.api.dto.InstrumentDTO;
 import com.market.api.dto.InstrumentUpdateRequest;
+import com.market.api.jfr.InstrumentUpdateEvent;
 import com.market.api.mapper.InstrumentMapper;
+import com.market.api.metrics.OperationTimers;
 import com.market.api.model.Instrument;
+import com.market.api.model.InstrumentType;
 import com.market.api.repository.InstrumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -20,18 +29,70 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class InstrumentService {
+public class InstrumentService implements MeterBinder {
+
+    public static final int MAX_RESOLVE_SIZE = 10_000;
+    public static final int MAX_SEARCH_LIMIT = 100;
 
     private final InstrumentRepository instrumentRepository;
     private final InstrumentMapper instrumentMapper;
+    private final PriceStreamService priceStreamService;
+    // Serialises the symbol uniqueness check with the write it guards; instrument writes are rare. A lock
+    // rather than a monitor, as the write may wait on the journal and must not pin a virtual thread's carrier.
+    private final ReentrantLock symbolLock = new ReentrantLock();
+    private final OperationTimers timers = new OperationTimers("market.service.operations",
+            "Time taken by service operations, whether they succeed or not", "service", "instruments");
+    private final OperationTimers.Operation createTimer = timers.operation("createInstrument");
+    private final OperationTimers.Operation updateTimer = timers.operation("updateInstrument");
+    private final OperationTimers.Operation deleteTimer = timers.operation("deleteInstrument");
 
     public List<InstrumentDTO> getAllInstruments() {
-        log.debug("Fetching all instruments");
-        return instrumentRepository.findAll().stream()
+        return getInstruments(null, null, null, null);
+    }
+
+    /**
+     * Instruments matching every given filter; null filters match all
+     *
+     * @param minPrice inclusive lower price bound
+     * @param maxPrice inclusive upper price bound
+     * @param symbolPrefix case-insensitive symbol prefix
+     */
+    public List<InstrumentDTO> getInstruments(InstrumentType type, BigDecimal minPrice, BigDecimal maxPrice, String symbolPrefix) {
+        log.debug("Fetching instruments of type: {} priced {} to {} with symbol prefix: {}", type, minPrice, maxPrice, symbolPrefix);
+        validatePriceRange(minPrice, maxPrice);
+
+        return instrumentRepository.findMatching(type, minPrice, maxPrice, symbolPrefix)
                 .map(instrumentMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Rejects an inverted price range
+     */
+    public void validatePriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new InvalidRequestException("'minPrice' must not exceed 'maxPrice'");
+        }
+    }
+
+    /**
+     * Changes whenever any instrument is saved or deleted
+     */
+    public long getInstrumentsVersion() {
+        return instrumentRepository.collectionVersion();
+    }
+
+    /**
+     * Changes whenever the instrument is saved
+     */
+    public long getInstrumentVersion(UUID id) {
+        long version = instrumentRepository.version(id);
+        if (version == 0) {
+            throw new ResourceNotFoundException("Instrument not found with id: " + id);
+        }
+        return version;
+    }
+
     public InstrumentDTO getInstrumentById(UUID id) {
         log.debug("Fetching instrument by id: {}", id);
         Instrument instrument = instrumentRepository.findById(id)
@@ -39,7 +100,92 @@ public class InstrumentService {
         return instrumentMapper.toDTO(instrument);
     }
 
+    public InstrumentDTO getInstrumentBySymbol(String symbol) {
+        log.debug("Fetching instrument by symbol: {}", symbol);
+        Instrument instrument = instrumentRepository.findBySymbol(symbol)
+                .orElseThrow(() -> new ResourceNotFoundException("Instrument not found with symbol: " + symbol));
+        return instrumentMapper.toDTO(instrument);
+    }
+
+    /**
+     * Maps each requested symbol (case-insensitive) to its instrument, in request order; unknown symbols are left out
+     */
+    public Map<String, InstrumentDTO> resolveSymbols(List<String> symbols) {
+        log.debug("Resolving {} symbols", symbols.size());
+        if (symbols.size() > MAX_RESOLVE_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_RESOLVE_SIZE + " symbols can be resolved at once");
+        }
+
+        Map<String, InstrumentDTO> resolved = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            if (symbol == null || symbol.isBlank()) {
+                throw new InvalidRequestException("Symbols must not be blank");
+            }
+            instrumentRepository.findBySymbol(symbol)
+                    .ifPresent(instrument -> resolved.put(symbol, instrumentMapper.toDTO(instrument)));
+        }
+        return resolved;
+    }
+
+    /**
+     * Type-ahead search over symbols and names: exact matches ahead of prefix matches and symbols ahead of
+     * names, falling back to near misses for a word that nothing starts with
+     */
+    public List<InstrumentDTO> searchInstruments(String query, int limit) {
+        log.debug("Searching instruments for '{}' (limit {})", query, limit);
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Search query 'q' must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidRequestException("'limit' must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return instrumentRepository.search(query, limit).stream()
+                .map(instrumentMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
     public InstrumentDTO createInstrument(InstrumentCreateRequest request) {
+        long started = System.nanoTime();
+        try {
+            return doCreateInstrument(request);
+        } finally {
+            createTimer.record(started);
+        }
+    }
+
+    public InstrumentDTO updateInstrument(UUID id, InstrumentUpdateRequest request) {
+        long started = System.nanoTime();
+        InstrumentUpdateEvent event = new InstrumentUpdateEvent();
+        event.begin();
+        InstrumentDTO updated = null;
+        RuntimeException failure = null;
+        try {
+            updated = doUpdateInstrument(id, request);
+            return updated;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            updateTimer.record(started);
+            event.finish(id, updated, failure);
+        }
+    }
+
+    public void deleteInstrument(UUID id) {
+        long started = System.nanoTime();
+        try {
+            doDeleteInstrument(id);
+        } finally {
+            deleteTimer.record(started);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+    }
+
+    private InstrumentDTO doCreateInstrument(InstrumentCreateRequest request) {
         log.info("Creating new instrument: {}", request.getSymbol());
 
         // Validate price is positive
@@ -50,28 +196,56 @@ public class InstrumentService {
         Instrument instrument = instrumentMapper.toEntity(request);
         instrument.setId(UUID.randomUUID());
 
-        Instrument saved = instrumentRepository.save(instrument);
+        Instrument saved;
+        symbolLock.lock();
+        try {
+            ensureSymbolAvailable(request.getSymbol(), instrument.getId());
+            saved = instrumentRepository.save(instrument);
+            // Published under the lock, so subscribers get prices in the order they were saved
+            priceStreamService.publish(saved);
+        } finally {
+            symbolLock.unlock();
+        }
         return instrumentMapper.toDTO(saved);
     }
 
-    public InstrumentDTO updateInstrument(UUID id, InstrumentUpdateRequest request) {
+    private InstrumentDTO doUpdateInstrument(UUID id, InstrumentUpdateRequest request) {
         log.info("Updating instrument: {}", id);
 
-        Instrument existing = instrumentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Instrument not found with id: " + id));
+        BigDecimal previousPrice;
+        Instrument updated;
+        symbolLock.lock();
+        try {
+            // Read under the lock, so a concurrent update is never copied over and lost
+            Instrument existing = instrumentRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Instrument not found with id: " + id));
+            previousPrice = existing.getPrice();
 
-        // Validate price if provided
-        if (request.getPrice() != null && request.getPrice().signum() <= 0) {
-            throw new InvalidRequestException("Price must be positive");
-        }
+            // Validate price if provided
+            if (request.getPrice() != null && request.getPrice().signum() <= 0) {
+                throw new InvalidRequestException("Price must be positive");
+            }
+            if (request.getSymbol() != null) {
+                ensureSymbolAvailable(request.getSymbol(), id);
+            }
+            // The stored instrument is left untouched, so readers never see the update before it is durable
+            Instrument changed = instrumentMapper.copy(existing);
+            instrumentMapper.updateEntityFromDTO(request, changed);
+            updated = instrumentRepository.save(changed);
 
-        instrumentMapper.updateEntityFromDTO(request, existing);
-        Instrument updated = instrumentRepository.save(existing);
+            // Only price changes are streamed; other edits reach subscribers with the next price. Published
+            // under the lock, so the latest price buffered for a subscriber is always the one stored.
+            if (previousPrice == null || updated.getPrice().compareTo(previousPrice) != 0) {
+                priceStreamService.publish(updated);
+            }
+        } finally {
+            symbolLock.unlock();
+        }
 
         return instrumentMapper.toDTO(updated);
     }
 
-    public void deleteInstrument(UUID id) {
+    private void doDeleteInstrument(UUID id) {
         log.info("Deleting instrument: {}", id);
 
         if (!instrumentRepository.existsById(id)) {
@@ -80,4 +254,12 @@ public class InstrumentService {
 
         instrumentRepository.deleteById(id);
     }
+
+    private void ensureSymbolAvailable(String symbol, UUID id) {
+        instrumentRepository.findBySymbol(symbol)
+                .filter(holder -> !holder.getId().equals(id))
+                .ifPresent(holder -> {
+                    throw new InvalidRequestException("Symbol " + symbol + " is already used by instrument " + holder.getId());
+                });
+    }
 }
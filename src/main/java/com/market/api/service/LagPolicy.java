@@ -0,0 +1,15 @@
+package com.market.api.service;
+
+/**
+ * What happens to a stream subscriber whose buffer is full because it reads slower than events arrive
+ */
+public enum LagPolicy {
+    /**
+     * Drop the oldest undelivered event to make room; the subscriber sees a gap in event ids
+     */
+    DROP,
+    /**
+     * Close the stream; the subscriber has to reconnect and catch up through the REST API
+     */
+    DISCONNECT
+}
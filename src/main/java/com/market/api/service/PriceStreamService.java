@@ -0,0 +1,146 @@
+package com.market.api.service;
+
+import com.market.api.dto.PriceUpdateDTO;
+import com.market.api.model.Instrument;
+import com.market.api.model.InstrumentType;
+import com.market.api.repository.InstrumentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans instrument price changes out to server-sent event subscribers.
+ * <p>
+ * Publishing only buffers the update in each matching subscription and never writes to a client, so a price
+ * update does not wait on subscribers; a small dispatcher pool does the writes. Each subscription has at most
+ * one delivery scheduled at a time, which keeps its events in order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceStreamService {
+
+    static final String EVENT_NAME = "price";
+
+    private final StreamProperties streamProperties;
+    private final InstrumentRepository instrumentRepository;
+    private final Set<PriceSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(streamProperties.getPrices().getDispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(subscription -> subscription.sink().complete());
+        subscriptions.clear();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Opens a stream that starts with the current price of every matching instrument, followed by each change
+     *
+     * @param symbols symbols to receive (case-insensitive), or null or empty for all
+     * @param type    instrument type to receive, or null for all
+     * @param sink    the client's end of the stream
+     */
+    public void subscribe(Collection<String> symbols, InstrumentType type, EventSink sink) {
+        StreamProperties.Prices properties = streamProperties.getPrices();
+        Set<String> normalized = symbols == null ? Set.of() : symbols.stream()
+                .filter(symbol -> !symbol.isBlank())
+                .map(InstrumentRepository::normalizeSymbol)
+                .collect(Collectors.toSet());
+        PriceSubscription subscription = new PriceSubscription(sink, normalized, type, properties.getMaxPending());
+
+        sink.onClose(() -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        log.debug("Price stream subscribed for symbols: {} type: {}, {} subscribers", normalized, type, subscriptions.size());
+
+        // Subscribed before the snapshot is taken, so a change racing with it is delivered rather than lost
+        for (Instrument instrument : instrumentRepository.findAll()) {
+            PriceUpdateDTO update = toUpdate(instrument);
+            if (subscription.matches(update) && subscription.offerSnapshot(update)) {
+                schedule(subscription);
+            }
+        }
+        subscription.snapshotOffered();
+    }
+
+    public void publish(Instrument instrument) {
+        PriceUpdateDTO update = toUpdate(instrument);
+        for (PriceSubscription subscription : subscriptions) {
+            offer(subscription, update);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void offer(PriceSubscription subscription, PriceUpdateDTO update) {
+        if (subscription.matches(update) && subscription.offer(update)) {
+            schedule(subscription);
+        }
+    }
+
+    private void schedule(PriceSubscription subscription) {
+        try {
+            dispatcher.execute(() -> deliver(subscription));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void deliver(PriceSubscription subscription) {
+        List<PriceUpdateDTO> updates = subscription.drain();
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            for (PriceUpdateDTO update : updates) {
+                subscription.sink().send(EVENT_NAME, null, update);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already ended
+            log.debug("Dropping price stream subscriber: {}", e.getMessage());
+            subscriptions.remove(subscription);
+            subscription.sink().completeWithError(e);
+            return;
+        }
+        // Rescheduled rather than looped, so one busy subscriber cannot keep a dispatcher thread to itself
+        schedule(subscription);
+    }
+
+    private static PriceUpdateDTO toUpdate(Instrument instrument) {
+        return PriceUpdateDTO.builder()
+                .instrumentId(instrument.getId())
+                .symbol(instrument.getSymbol())
+                .type(instrument.getType())
+                .price(instrument.getPrice())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
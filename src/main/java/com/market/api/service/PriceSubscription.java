@@ -0,0 +1,110 @@
+package com.market.api.service;
+
+import com.market.api.dto.PriceUpdateDTO;
+import com.market.api.model.InstrumentType;
+import com.market.api.repository.InstrumentRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One price stream subscriber: its filter and a bounded buffer of undelivered updates.
+ * <p>
+ * The buffer coalesces by instrument, so while a slow consumer is being written to, newer prices replace
+ * the ones it has not received yet and it only ever catches up with the latest price of each instrument.
+ * The opening snapshot never replaces a change published since the subscription was registered, whether or not
+ * that change is still buffered.
+ */
+final class PriceSubscription {
+
+    private final EventSink sink;
+    private final Set<String> symbols;
+    private final InstrumentType type;
+    private final int maxPending;
+    // Insertion order is the order updates were last replaced in, so the eldest entry is the stalest
+    private final LinkedHashMap<UUID, PriceUpdateDTO> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    // Instruments with a published change while the snapshot is offered; null once it has been
+    private Set<UUID> published = new HashSet<>();
+
+    /**
+     * @param symbols normalized symbols to receive, or empty for all
+     * @param type    instrument type to receive, or null for all
+     */
+    PriceSubscription(EventSink sink, Set<String> symbols, InstrumentType type, int maxPending) {
+        this.sink = sink;
+        this.symbols = symbols;
+        this.type = type;
+        this.maxPending = maxPending;
+    }
+
+    EventSink sink() {
+        return sink;
+    }
+
+    boolean matches(PriceUpdateDTO update) {
+        return (symbols.isEmpty()
+                || (update.getSymbol() != null && symbols.contains(InstrumentRepository.normalizeSymbol(update.getSymbol()))))
+                && (type == null || type == update.getType());
+    }
+
+    /**
+     * Buffers an update, replacing any undelivered update of the same instrument
+     *
+     * @return true when no delivery is scheduled yet and the caller must schedule one
+     */
+    synchronized boolean offer(PriceUpdateDTO update) {
+        if (published != null) {
+            published.add(update.getInstrumentId());
+        }
+        return buffer(update);
+    }
+
+    /**
+     * Buffers a snapshot value unless a change of the instrument has been published since subscribing, which
+     * is at least as new
+     *
+     * @return true when no delivery is scheduled yet and the caller must schedule one
+     */
+    synchronized boolean offerSnapshot(PriceUpdateDTO update) {
+        return !published.contains(update.getInstrumentId()) && buffer(update);
+    }
+
+    /**
+     * Ends the snapshot; changes are no longer tracked
+     */
+    synchronized void snapshotOffered() {
+        published = null;
+    }
+
+    private boolean buffer(PriceUpdateDTO update) {
+        pending.remove(update.getInstrumentId());
+        pending.put(update.getInstrumentId(), update);
+        if (pending.size() > maxPending) {
+            UUID stalest = pending.keySet().iterator().next();
+            pending.remove(stalest);
+        }
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    /**
+     * Takes every buffered update; when there are none the scheduled delivery ends, so the next offer schedules another
+     */
+    synchronized List<PriceUpdateDTO> drain() {
+        if (pending.isEmpty()) {
+            scheduled = false;
+            return List.of();
+        }
+        List<PriceUpdateDTO> updates = new ArrayList<>(pending.values());
+        pending.clear();
+        return updates;
+    }
+}
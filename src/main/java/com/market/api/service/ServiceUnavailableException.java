@@ -0,0 +1,11 @@
+package com.market.api.service;
+
+/**
+ * Exception thrown when the requested data is not available yet, e.g. while it is still loading
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.market.api.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the server-sent event streams ({@code market.stream.*})
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "market.stream")
+public class StreamProperties {
+
+    private Prices prices = new Prices();
+
+    private Trades trades = new Trades();
+
+    @Data
+    public static class Prices {
+
+        /**
+         * Threads delivering events; a subscriber that stops reading can hold one while its write blocks
+         */
+        private int dispatchThreads = 4;
+
+        /**
+         * Undelivered instruments kept per subscriber; beyond it the stalest instrument's update is dropped
+         */
+        private int maxPending = 1024;
+
+        /**
+         * How long a subscription stays open before the client has to reconnect
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Trades {
+
+        /**
+         * Created trades waiting to be fanned out (a power of two); trades arriving while it is full are not published
+         */
+        private int ringSize = 65536;
+
+        /**
+         * Undelivered events kept per subscriber before its lag policy applies
+         */
+        private int bufferSize = 1024;
+
+        /**
+         * Default for subscribers that do not choose one
+         */
+        private LagPolicy lagPolicy = LagPolicy.DROP;
+
+        /**
+         * Threads delivering events; a subscriber that stops reading can hold one while its write blocks
+         */
+        private int dispatchThreads = 4;
+
+        /**
+         * How long a subscription stays open before the client has to reconnect
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+}
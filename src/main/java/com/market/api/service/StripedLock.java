@@ -0,0 +1,69 @@
+package com.market.api.service;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks keyed by id hash, so work on different ids rarely contends without
+ * allocating a lock per id. Several ids are always locked in stripe order, so two callers
+ * locking overlapping sets cannot deadlock.
+ */
+final class StripedLock {
+
+    private final ReentrantLock[] stripes;
+
+    StripedLock(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of two: " + stripes);
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Holds the stripe of the given id until closed
+     */
+    Held lock(UUID id) {
+        ReentrantLock stripe = stripes[stripeOf(id)];
+        stripe.lock();
+        return stripe::unlock;
+    }
+
+    /**
+     * Holds the stripes of the given ids until closed
+     */
+    Held lock(Collection<UUID> ids) {
+        boolean[] needed = new boolean[stripes.length];
+        for (UUID id : ids) {
+            needed[stripeOf(id)] = true;
+        }
+        int[] locked = new int[ids.size()];
+        int count = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            if (needed[stripe]) {
+                stripes[stripe].lock();
+                locked[count++] = stripe;
+            }
+        }
+        int held = count;
+        return () -> {
+            for (int i = held - 1; i >= 0; i--) {
+                stripes[locked[i]].unlock();
+            }
+        };
+    }
+
+    private int stripeOf(UUID id) {
+        int hash = id.hashCode();
+        // Spread the high bits, as the stripe index only uses the low ones
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.market.api.service;
+
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.TradeSide;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One trade tape subscriber: its filters, lag policy and a bounded buffer of undelivered events
+ */
+final class TapeSubscription {
+
+    enum Offer {
+        /**
+         * Buffered behind a delivery that is already scheduled
+         */
+        QUEUED,
+        /**
+         * Buffered, and the caller must schedule a delivery
+         */
+        SCHEDULE,
+        /**
+         * Buffered after dropping the oldest undelivered event
+         */
+        DROPPED,
+        /**
+         * Not buffered; the subscriber must be disconnected
+         */
+        OVERFLOW
+    }
+
+    record Event(long sequence, TradeDTO trade) {
+    }
+
+    private final EventSink sink;
+    private final UUID userId;
+    private final UUID instrumentId;
+    private final TradeSide side;
+    private final LagPolicy lagPolicy;
+    private final int capacity;
+    private final ArrayDeque<Event> pending = new ArrayDeque<>();
+    private boolean scheduled;
+
+    /**
+     * Null filters match every trade
+     */
+    TapeSubscription(EventSink sink, UUID userId, UUID instrumentId, TradeSide side, LagPolicy lagPolicy, int capacity) {
+        this.sink = sink;
+        this.userId = userId;
+        this.instrumentId = instrumentId;
+        this.side = side;
+        this.lagPolicy = lagPolicy;
+        this.capacity = capacity;
+    }
+
+    EventSink sink() {
+        return sink;
+    }
+
+    boolean matches(TradeDTO trade) {
+        return (userId == null || userId.equals(trade.getUserId()))
+                && (instrumentId == null || instrumentId.equals(trade.getInstrumentId()))
+                && (side == null || side == trade.getSide());
+    }
+
+    synchronized Offer offer(Event event) {
+        if (pending.size() >= capacity) {
+            if (lagPolicy == LagPolicy.DISCONNECT) {
+                return Offer.OVERFLOW;
+            }
+            // A full buffer always has a delivery scheduled, so there is nothing to schedule here
+            pending.pollFirst();
+            pending.addLast(event);
+            return Offer.DROPPED;
+        }
+        pending.addLast(event);
+        if (scheduled) {
+            return Offer.QUEUED;
+        }
+        scheduled = true;
+        return Offer.SCHEDULE;
+    }
+
+    /**
+     * Takes every buffered event; when there are none the scheduled delivery ends, so the next offer schedules another
+     */
+    synchronized List<Event> drain() {
+        if (pending.isEmpty()) {
+            scheduled = false;
+            return List.of();
+        }
+        List<Event> events = new ArrayList<>(pending);
+        pending.clear();
+        return events;
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+}
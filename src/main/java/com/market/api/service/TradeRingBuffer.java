@@ -0,0 +1,94 @@
+package com.market.api.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number: producers claim a position by CAS on the tail and publish the
+ * element by advancing the slot's sequence, and the consumer frees the slot by advancing it once more by
+ * the capacity. A full buffer makes {@link #offer} fail instead of blocking.
+ */
+final class TradeRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only advanced by the consumer; atomic so size() can be read from other threads
+    private final AtomicLong head = new AtomicLong();
+
+    TradeRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false when the buffer is full
+     */
+    boolean offer(E element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                // The consumer has not freed this slot from the previous lap yet
+                return false;
+            }
+            // Otherwise another producer claimed the position first; retry with the new tail
+        }
+        elements[index] = element;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Must only be called from the consumer thread
+     *
+     * @return the next element, or null when the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.lazySet(index, position + elements.length);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    int size() {
+        // Approximate while producers and the consumer race; clamped to the valid range
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+
+    /**
+     * Must only be called from the consumer thread
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (head.get() & mask)) != head.get() + 1;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+}
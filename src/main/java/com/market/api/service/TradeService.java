@@ -1,20 +1,50 @@
 package com.market.api.service;
 
+import com.market.api.dto.CursorPage;
+import com.market.api.dto.PositionDTO;
+import com.market.api.dto.TradeBatchItemResult;
 import com.market.api.dto.TradeCreateRequest;
 import com.market.api.dto.TradeDTO;
+import com.market.api.jfr.TradeCreationEvent;
+import com.market.api.mapper.PositionMapper;
+import com.market.api.metrics.OperationTimers;
+import com.market.api.metrics.RequestStages;
 import com.market.api.mapper.TradeMapper;
+import com.market.api.model.Instrument;
+import com.market.api.model.Position;
 import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import com.market.api.model.User;
 import com.market.api.repository.InstrumentRepository;
+import com.market.api.repository.PositionRepository;
+import com.market.api.repository.RepositoryInitializer;
+import com.market.api.repository.TradeCursor;
 import com.market.api.repository.TradeRepository;
 import com.market.api.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for Trade business logic
@@ -22,31 +52,288 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TradeService {
+public class TradeService implements MeterBinder {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 50_000;
+    private static final int USER_LOCK_STRIPES = 256;
 
     private final TradeRepository tradeRepository;
     private final UserRepository userRepository;
     private final InstrumentRepository instrumentRepository;
+    private final PositionRepository positionRepository;
     private final TradeMapper tradeMapper;
+    private final PositionMapper positionMapper;
+    private final Validator validator;
+    private final RepositoryInitializer repositoryInitializer;
+    private final TradeTapeService tradeTapeService;
+    // Serialises balance checks and updates per user; trades of different users rarely share a stripe
+    private final StripedLock userLocks = new StripedLock(USER_LOCK_STRIPES);
+    private final OperationTimers timers = new OperationTimers("market.service.operations",
+            "Time taken by service operations, whether they succeed or not", "service", "trades");
+    private final OperationTimers.Operation createTimer = timers.operation("createTrade");
+    private final OperationTimers.Operation createBatchTimer = timers.operation("createTrades");
+    private final LongAdder created = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
 
-    public List<TradeDTO> getAllTrades() {
-        log.debug("Fetching all trades");
-        return tradeRepository.findAll().stream()
-                .map(tradeMapper::toDTO)
-                .collect(Collectors.toList());
+    public CursorPage<TradeDTO> getTradesPage(LocalDateTime from, LocalDateTime to, String after, Integer limit) {
+        ensureTradesLoaded();
+        log.debug("Fetching trades page from: {} to: {} after: {} limit: {}", from, to, after, limit);
+
+        // Validate the time range is not inverted
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidRequestException("'from' must be before 'to'");
+        }
+
+        return page(after, limit, (cursor, size) -> tradeRepository.findPageInRange(from, to, cursor, size));
+    }
+
+    public CursorPage<TradeDTO> getTradesPageByUser(UUID userId, String after, Integer limit) {
+        ensureTradesLoaded();
+        log.debug("Fetching trades page for user: {} after: {} limit: {}", userId, after, limit);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return page(after, limit, (cursor, size) -> tradeRepository.findPageByUserId(userId, cursor, size));
+    }
+
+    public CursorPage<TradeDTO> getTradesPageByInstrument(UUID instrumentId, String after, Integer limit) {
+        ensureTradesLoaded();
+        log.debug("Fetching trades page for instrument: {} after: {} limit: {}", instrumentId, after, limit);
+        if (!instrumentRepository.existsById(instrumentId)) {
+            throw new ResourceNotFoundException("Instrument not found with id: " + instrumentId);
+        }
+        return page(after, limit, (cursor, size) -> tradeRepository.findPageByInstrumentId(instrumentId, cursor, size));
+    }
+
+    /**
+     * Lazily maps every trade in time order; the caller must close the stream
+     */
+    public Stream<TradeDTO> streamAllTrades() {
+        ensureTradesLoaded();
+        log.debug("Streaming all trades");
+        return tradeRepository.streamAll().map(tradeMapper::toDTO);
     }
 
     public TradeDTO getTradeById(UUID id) {
+        ensureTradesLoaded();
         log.debug("Fetching trade by id: {}", id);
         Trade trade = tradeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Trade not found with id: " + id));
         return tradeMapper.toDTO(trade);
     }
 
+    /**
+     * Creates a trade filled at the instrument's current price, debiting the user's balance for a BUY
+     * and crediting it for a SELL. A BUY the balance cannot cover is rejected.
+     */
     public TradeDTO createTrade(TradeCreateRequest request) {
+        long started = System.nanoTime();
+        TradeCreationEvent event = new TradeCreationEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            return doCreateTrade(request);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            createTimer.record(started);
+            event.finish(request, failure);
+        }
+    }
+
+    private TradeDTO doCreateTrade(TradeCreateRequest request) {
+        ensureTradesLoaded();
         log.info("Creating new trade for user: {} and instrument: {}",
                 request.getUserId(), request.getInstrumentId());
 
+        Trade trade = newTrade(request);
+        BigDecimal price = fillPrice(trade);
+        RequestStages.mark(RequestStages.Stage.LOOKUP);
+        try (StripedLock.Held ignored = userLocks.lock(trade.getUserId())) {
+            User user = settle(currentUser(trade.getUserId()), trade, price);
+            RequestStages.mark(RequestStages.Stage.SETTLE);
+            tradeRepository.save(trade);
+            userRepository.save(user);
+            positionRepository.apply(trade, price);
+        }
+        RequestStages.mark(RequestStages.Stage.SAVE);
+        created.increment();
+        TradeDTO dto = tradeMapper.toDTO(trade);
+        RequestStages.mark(RequestStages.Stage.MAPPING);
+        tradeTapeService.publish(dto);
+        RequestStages.mark(RequestStages.Stage.PUBLISH);
+        return dto;
+    }
+
+    /**
+     * Validates and creates a batch of trades, rejecting invalid items individually rather than failing the batch.
+     * Items are settled against the users' balances in request order, valid trades are inserted in one
+     * repository call, and the result list is in request order.
+     */
+    public List<TradeBatchItemResult> createTrades(List<TradeCreateRequest> requests) {
+        long started = System.nanoTime();
+        try {
+            return doCreateTrades(requests);
+        } finally {
+            createBatchTimer.record(started);
+        }
+    }
+
+    private List<TradeBatchItemResult> doCreateTrades(List<TradeCreateRequest> requests) {
+        ensureTradesLoaded();
+        log.info("Creating batch of {} trades", requests.size());
+
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw batchTooLarge();
+        }
+
+        List<TradeBatchItemResult> results = new ArrayList<>(requests.size());
+        List<Trade> candidates = new ArrayList<>(requests.size());
+        List<BigDecimal> prices = new ArrayList<>(requests.size());
+        List<Integer> candidateIndexes = new ArrayList<>(requests.size());
+        Set<UUID> userIds = new LinkedHashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TradeCreateRequest request = requests.get(i);
+            try {
+                validateBean(request);
+                Trade trade = newTrade(request);
+                prices.add(fillPrice(trade));
+                candidates.add(trade);
+                candidateIndexes.add(i);
+                userIds.add(trade.getUserId());
+                results.add(null);
+            } catch (InvalidRequestException e) {
+                log.debug("Rejected batch item {}: {}", i, e.getMessage());
+                results.add(TradeBatchItemResult.rejected(i, e.getMessage()));
+            }
+        }
+
+        try (StripedLock.Held ignored = userLocks.lock(userIds)) {
+            // Running balances of the users settled so far, so later items see the debits of earlier ones
+            Map<UUID, User> settled = new HashMap<>();
+            List<Trade> accepted = new ArrayList<>(candidates.size());
+            List<BigDecimal> acceptedPrices = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                Trade trade = candidates.get(i);
+                int index = candidateIndexes.get(i);
+                try {
+                    // Looked up per item: a user deleted since the unlocked checks only rejects its own items
+                    User user = settled.containsKey(trade.getUserId())
+                            ? settled.get(trade.getUserId())
+                            : currentUser(trade.getUserId());
+                    settled.put(user.getId(), settle(user, trade, prices.get(i)));
+                    accepted.add(trade);
+                    acceptedPrices.add(prices.get(i));
+                    results.set(index, TradeBatchItemResult.created(index, tradeMapper.toDTO(trade)));
+                } catch (InvalidRequestException e) {
+                    log.debug("Rejected batch item {}: {}", index, e.getMessage());
+                    results.set(index, TradeBatchItemResult.rejected(index, e.getMessage()));
+                }
+            }
+
+            tradeRepository.saveAll(accepted);
+            settled.values().forEach(userRepository::save);
+            for (int i = 0; i < accepted.size(); i++) {
+                positionRepository.apply(accepted.get(i), acceptedPrices.get(i));
+            }
+            created.add(accepted.size());
+            rejected.add(requests.size() - accepted.size());
+        }
+        for (TradeBatchItemResult result : results) {
+            if (result.isSuccess()) {
+                tradeTapeService.publish(result.getTrade());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.bindTo(registry);
+        FunctionCounter.builder("market.trades.created", created, LongAdder::sum)
+                .description("Trades created, singly or in batches")
+                .register(registry);
+        FunctionCounter.builder("market.trades.batch.rejected", rejected, LongAdder::sum)
+                .description("Batch items rejected by validation or settlement")
+                .register(registry);
+    }
+
+    /**
+     * The rejection of a batch over {@link #MAX_BATCH_SIZE}, for callers that stop reading one as soon as it is
+     */
+    public static InvalidRequestException batchTooLarge() {
+        return new InvalidRequestException("Batch size must not exceed " + MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Open positions of a user, one per instrument, ordered by instrument id
+     */
+    public List<PositionDTO> getPositionsByUser(UUID userId) {
+        ensureTradesLoaded();
+        log.debug("Fetching positions for user: {}", userId);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return positionRepository.findByUserId(userId).stream()
+                .sorted(Comparator.comparing(Position::getInstrumentId))
+                .map(positionMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Trades fill at the instrument's current price, which must be positive for the trade to be valued
+     */
+    private BigDecimal fillPrice(Trade trade) {
+        BigDecimal price = instrumentRepository.findById(trade.getInstrumentId())
+                .map(Instrument::getPrice)
+                .orElse(null);
+        if (price == null || price.signum() <= 0) {
+            throw new InvalidRequestException("Instrument has no valid price: " + trade.getInstrumentId());
+        }
+        return price;
+    }
+
+    private User currentUser(UUID userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new InvalidRequestException("User not found with id: " + userId));
+    }
+
+    /**
+     * Returns a copy of the user with the trade's value debited (BUY) or credited (SELL).
+     * Must be called holding the user's lock; the stored user is never mutated in place, so readers
+     * outside the lock always see a consistent balance.
+     */
+    private User settle(User user, Trade trade, BigDecimal price) {
+        BigDecimal amount = price.multiply(BigDecimal.valueOf(trade.getQuantity()));
+        BigDecimal balance = user.getBalance() == null ? BigDecimal.ZERO : user.getBalance();
+        BigDecimal updated;
+        if (trade.getSide() == TradeSide.SELL) {
+            updated = balance.add(amount);
+        } else {
+            updated = balance.subtract(amount);
+            if (updated.signum() < 0) {
+                throw new InvalidRequestException("Insufficient funds: balance " + balance.toPlainString()
+                        + " does not cover " + amount.toPlainString());
+            }
+        }
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .country(user.getCountry())
+                .balance(updated)
+                .build();
+    }
+
+    private void ensureTradesLoaded() {
+        if (!repositoryInitializer.isTradesLoaded()) {
+            throw new ServiceUnavailableException("Trade history is still loading");
+        }
+    }
+
+    private Trade newTrade(TradeCreateRequest request) {
         // Validate user exists
         if (!userRepository.existsById(request.getUserId())) {
             throw new InvalidRequestException("User not found with id: " + request.getUserId());
@@ -61,12 +348,69 @@ public class TradeService {
         if (request.getQuantity() <= 0) {
             throw new InvalidRequestException("Quantity must be positive");
         }
+        RequestStages.mark(RequestStages.Stage.LOOKUP);
 
         Trade trade = tradeMapper.toEntity(request);
         trade.setId(UUID.randomUUID());
-        trade.setTimestamp(LocalDateTime.now());
+        // Microsecond precision is what every trade store and the snapshot format keep
+        trade.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        RequestStages.mark(RequestStages.Stage.MAPPING);
+        return trade;
+    }
 
-        Trade saved = tradeRepository.save(trade);
-        return tradeMapper.toDTO(saved);
+    private void validateBean(TradeCreateRequest request) {
+        if (request == null) {
+            throw new InvalidRequestException("Trade request is required");
+        }
+        Set<ConstraintViolation<TradeCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private CursorPage<TradeDTO> page(String after, Integer limit,
+                                      BiFunction<TradeCursor, Integer, List<Trade>> finder) {
+        int pageSize = resolvePageSize(limit);
+        TradeCursor cursor = decodeCursor(after);
+
+        // Fetch one extra trade to learn whether another page follows
+        List<Trade> trades = finder.apply(cursor, pageSize + 1);
+        boolean hasMore = trades.size() > pageSize;
+        if (hasMore) {
+            trades = trades.subList(0, pageSize);
+        }
+
+        List<TradeDTO> items = trades.stream()
+                .map(tradeMapper::toDTO)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? TradeRepository.cursorOf(trades.get(pageSize - 1)).encode() : null;
+        return CursorPage.<TradeDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private TradeCursor decodeCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            return TradeCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + after);
+        }
     }
 }
@@ -0,0 +1,235 @@
+package com.market.api.service;
+
+import com.market.api.dto.TradeDTO;
+import com.market.api.model.TradeSide;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live tape of created trades for server-sent event subscribers.
+ * <p>
+ * The request thread only offers the trade to a lock-free {@link TradeRingBuffer}, which never blocks; a
+ * single publisher thread numbers the trades and fans them out to the matching subscriptions, and a
+ * dispatcher pool writes to the clients. A subscriber that falls behind either loses its oldest events or
+ * is disconnected, per its {@link LagPolicy}.
+ */
+@Slf4j
+@Service
+public class TradeTapeService implements MeterBinder {
+
+    static final String EVENT_NAME = "trade";
+
+    private final StreamProperties.Trades properties;
+    private final TradeRingBuffer<Entry> ring;
+    private final Set<TapeSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    private Thread publisher;
+    private ExecutorService dispatcher;
+    private volatile boolean running;
+    private volatile boolean publisherIdle;
+    private volatile Timer publishLatency;
+
+    public TradeTapeService(StreamProperties streamProperties) {
+        this.properties = streamProperties.getTrades();
+        this.ring = new TradeRingBuffer<>(properties.getRingSize());
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "trade-tape-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        publisher = new Thread(this::publishLoop, "trade-tape-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(publisher);
+        subscriptions.forEach(subscription -> subscription.sink().complete());
+        subscriptions.clear();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Queues a created trade for the tape; never blocks, and drops the trade from the tape when the ring is full
+     */
+    public void publish(TradeDTO trade) {
+        if (!ring.offer(new Entry(trade, System.nanoTime()))) {
+            rejected.increment();
+            return;
+        }
+        if (publisherIdle) {
+            LockSupport.unpark(publisher);
+        }
+    }
+
+    /**
+     * Opens a stream of the trades created from now on that match every given filter
+     *
+     * @param lagPolicy what to do when the subscriber falls behind, or null for the configured default
+     * @param sink      the client's end of the stream
+     */
+    public void subscribe(UUID userId, UUID instrumentId, TradeSide side, LagPolicy lagPolicy, EventSink sink) {
+        TapeSubscription subscription = new TapeSubscription(sink, userId, instrumentId, side,
+                lagPolicy == null ? properties.getLagPolicy() : lagPolicy, properties.getBufferSize());
+
+        sink.onClose(() -> subscriptions.remove(subscription));
+        try {
+            // Commits the response right away, so the client knows the tape is live before the first trade
+            sink.comment("subscribed");
+        } catch (IOException e) {
+            sink.completeWithError(e);
+            return;
+        }
+        subscriptions.add(subscription);
+        log.debug("Trade tape subscribed for user: {} instrument: {} side: {}, {} subscribers",
+                userId, instrumentId, side, subscriptions.size());
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Trades created but not yet fanned out to the subscribers
+     */
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("market.trades.tape.queue.depth", ring, TradeRingBuffer::size)
+                .description("Created trades not yet fanned out to subscribers")
+                .register(registry);
+        Gauge.builder("market.trades.tape.subscriber.pending", subscriptions,
+                        all -> all.stream().mapToInt(TapeSubscription::pendingCount).max().orElse(0))
+                .description("Undelivered events of the most lagging subscriber")
+                .register(registry);
+        Gauge.builder("market.trades.tape.subscribers", subscriptions, Set::size)
+                .description("Open trade tape subscriptions")
+                .register(registry);
+        FunctionCounter.builder("market.trades.tape.rejected", rejected, LongAdder::sum)
+                .description("Trades left off the tape because the ring buffer was full")
+                .register(registry);
+        FunctionCounter.builder("market.trades.tape.dropped", dropped, LongAdder::sum)
+                .description("Events dropped for lagging subscribers")
+                .register(registry);
+        FunctionCounter.builder("market.trades.tape.disconnected", disconnected, LongAdder::sum)
+                .description("Subscribers disconnected for lagging")
+                .register(registry);
+        publishLatency = Timer.builder("market.trades.tape.publish.latency")
+                .description("Time from trade creation until it is queued for every matching subscriber")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void publishLoop() {
+        long sequence = 0;
+        while (running) {
+            Entry entry = ring.poll();
+            if (entry == null) {
+                idle();
+                continue;
+            }
+            sequence++;
+            fanOut(new TapeSubscription.Event(sequence, entry.trade()));
+            Timer timer = publishLatency;
+            if (timer != null) {
+                timer.record(System.nanoTime() - entry.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void idle() {
+        publisherIdle = true;
+        // Re-checked after announcing the idle state, so a trade offered in between unparks rather than waits.
+        // Parked without a timeout: publish and stop unpark, and a spurious wake-up only polls an empty ring again.
+        if (ring.isEmpty()) {
+            LockSupport.park(this);
+        }
+        publisherIdle = false;
+    }
+
+    private void fanOut(TapeSubscription.Event event) {
+        for (TapeSubscription subscription : subscriptions) {
+            if (!subscription.matches(event.trade())) {
+                continue;
+            }
+            switch (subscription.offer(event)) {
+                case SCHEDULE -> schedule(subscription);
+                case DROPPED -> dropped.increment();
+                case OVERFLOW -> {
+                    log.debug("Disconnecting lagging trade tape subscriber");
+                    disconnected.increment();
+                    subscriptions.remove(subscription);
+                    subscription.sink().complete();
+                }
+                case QUEUED -> {
+                }
+            }
+        }
+    }
+
+    private void schedule(TapeSubscription subscription) {
+        try {
+            dispatcher.execute(() -> deliver(subscription));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void deliver(TapeSubscription subscription) {
+        List<TapeSubscription.Event> events = subscription.drain();
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            for (TapeSubscription.Event event : events) {
+                subscription.sink().send(EVENT_NAME, Long.toString(event.sequence()), event.trade());
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the stream was ended after lagging
+            log.debug("Dropping trade tape subscriber: {}", e.getMessage());
+            subscriptions.remove(subscription);
+            subscription.sink().completeWithError(e);
+            return;
+        }
+        // Rescheduled rather than looped, so one busy subscriber cannot keep a dispatcher thread to itself
+        schedule(subscription);
+    }
+
+    private record Entry(TradeDTO trade, long enqueuedNanos) {
+    }
+}
@@ -23,6 +23,24 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
 
+    /**
+     * Changes whenever any user is saved, a trade settlement included
+     */
+    public long getUsersVersion() {
+        return userRepository.collectionVersion();
+    }
+
+    /**
+     * Changes whenever the user is saved, a trade settlement included
+     */
+    public long getUserVersion(UUID id) {
+        long version = userRepository.version(id);
+        if (version == 0) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        return version;
+    }
+
     public List<UserDTO> getAllUsers() {
         log.debug("Fetching all users");
         return userRepository.findAll().stream()
@@ -10,8 +10,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * API tests for Instrument endpoints using RestAssured with Allure Reports
@@ -53,6 +64,122 @@ class InstrumentApiTest {
                 .body("data[0].price", notNullValue());
     }
 
+    @Test
+    @DisplayName("GET /api/instruments?type=&minPrice=&maxPrice= - Should return only matching instruments")
+    void testGetInstruments_Filtered() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("type", "STOCK")
+                .queryParam("minPrice", 200)
+                .queryParam("maxPrice", 300)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data.symbol", contains("TSLA"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("minPrice", 100)
+                .queryParam("maxPrice", 300)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.symbol", hasItems("AAPL", "TSLA"))
+                .body("data.price", everyItem(allOf(greaterThanOrEqualTo(100f), lessThanOrEqualTo(300f))));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments?minPrice=&maxPrice= - Should follow price updates")
+    void testGetInstruments_FilteredAfterUpdate() {
+        String instrumentId = "11111111-aaaa-bbbb-cccc-000000000008";
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "price": 7.50
+                        }
+                        """)
+                .when()
+                .put("/" + instrumentId)
+                .then()
+                .statusCode(200);
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("minPrice", 7)
+                .queryParam("maxPrice", 8)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.id", hasItem(instrumentId));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("maxPrice", 5)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.id", not(hasItem(instrumentId)));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments?symbolPrefix= - Should match symbols by prefix regardless of case")
+    void testGetInstruments_SymbolPrefix() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("symbolPrefix", "aapl")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data.symbol", containsInAnyOrder("AAPL", "AAPL25FEB200C"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments?fields= - Should return only the requested properties")
+    void testGetInstruments_Projection() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("type", "CRYPTO")
+                .queryParam("fields", "id,symbol,price")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(greaterThan(0)))
+                .body("data[0].keySet()", containsInAnyOrder("id", "symbol", "price"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments - Should fail with an inverted price range or unknown field")
+    void testGetInstruments_InvalidQuery() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("minPrice", 500)
+                .queryParam("maxPrice", 100)
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("minPrice"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("fields", "id,colour")
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("message", containsString("colour"));
+    }
+
     @Test
     @DisplayName("GET /api/instruments/{id} - Should return specific instrument")
     @Story("Retrieve Instrument by ID")
@@ -89,6 +216,278 @@ class InstrumentApiTest {
                 .body("message", containsString("not found"));
     }
 
+    @Test
+    @DisplayName("GET /api/instruments/{id}/trades - Should return only trades on the instrument")
+    void testGetInstrumentTrades() {
+        String instrumentId = "11111111-aaaa-bbbb-cccc-000000000002";
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + instrumentId + "/trades")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(greaterThanOrEqualTo(2)))
+                .body("data.instrumentId", everyItem(equalTo(instrumentId)));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/{id}/trades - Should return 404 for non-existent instrument")
+    void testGetInstrumentTrades_NotFound() {
+        String nonExistentId = "99999999-aaaa-bbbb-cccc-000000000000";
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + nonExistentId + "/trades")
+                .then()
+                .statusCode(404)
+                .body("success", equalTo(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments - Should answer If-None-Match with 304 until an instrument changes")
+    void testGetInstruments_NotModified() {
+        String createdId = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "name": "Conditional Corp",
+                            "type": "STOCK",
+                            "symbol": "CNDL",
+                            "price": 10.00
+                        }
+                        """)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("data.id");
+
+        String listEtag = given().when().get().then().statusCode(200).extract().header("ETag");
+        String etag = given().when().get("/" + createdId).then().statusCode(200).extract().header("ETag");
+
+        given().header("If-None-Match", listEtag).when().get()
+                .then().statusCode(304).body(emptyString());
+        given().header("If-None-Match", etag).when().get("/" + createdId)
+                .then().statusCode(304).header("ETag", equalTo(etag)).body(emptyString());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "price": 11.00
+                        }
+                        """)
+                .when()
+                .put("/" + createdId)
+                .then()
+                .statusCode(200);
+
+        given().header("If-None-Match", listEtag).when().get()
+                .then().statusCode(200).header("ETag", not(equalTo(listEtag)));
+        given().header("If-None-Match", etag).when().get("/" + createdId)
+                .then().statusCode(200).header("ETag", not(equalTo(etag))).body("data.price", equalTo(11.00f));
+
+        // A request that would fail is not answered 304, whatever the client holds
+        String currentEtag = given().when().get().then().statusCode(200).extract().header("ETag");
+        given().header("If-None-Match", currentEtag).queryParam("fields", "nope").when().get()
+                .then().statusCode(400);
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/by-symbol/{symbol} - Should find the instrument regardless of case")
+    void testGetInstrumentBySymbol() {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/by-symbol/ethusd")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data.id", equalTo("11111111-aaaa-bbbb-cccc-000000000003"))
+                .body("data.symbol", equalTo("ETHUSD"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/by-symbol/{symbol} - Should return 404 for unknown symbol")
+    void testGetInstrumentBySymbol_NotFound() {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/by-symbol/NOPE")
+                .then()
+                .statusCode(404)
+                .body("success", equalTo(false))
+                .body("message", containsString("not found"));
+    }
+
+    @Test
+    @DisplayName("POST /api/instruments/resolve - Should map known symbols and leave unknown ones out")
+    void testResolveSymbols() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        ["AAPL", "tslA", "NOPE"]
+                        """)
+                .when()
+                .post("/resolve")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("message", containsString("2 resolved, 1 unresolved"))
+                .body("data.AAPL.id", equalTo("11111111-aaaa-bbbb-cccc-000000000004"))
+                .body("data.tslA.symbol", equalTo("TSLA"))
+                .body("data", not(hasKey("NOPE")));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/search - Should rank the exact symbol ahead of longer symbols")
+    void testSearchInstruments() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", "aapl")
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(2))
+                .body("data[0].symbol", equalTo("AAPL"))
+                .body("data[1].symbol", equalTo("AAPL25FEB200C"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/search - Should match name words and tolerate typos")
+    void testSearchInstruments_NamesAndTypos() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", "Bitcon")
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(200)
+                .body("data[0].symbol", equalTo("BTCUSD"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", "put tsla")
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(200)
+                .body("data.symbol", contains("TSLA25FEB220P"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/search - Should cap the results at the limit")
+    void testSearchInstruments_Limit() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", "c")
+                .queryParam("limit", 2)
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/search - Should reject a blank query or a limit out of range")
+    void testSearchInstruments_InvalidRequest() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", " ")
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("'q'"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("q", "btc")
+                .queryParam("limit", 0)
+                .when()
+                .get("/search")
+                .then()
+                .statusCode(400)
+                .body("message", containsString("'limit'"));
+    }
+
+    @Test
+    @DisplayName("GET /api/instruments/search - Should follow renames and deletions")
+    void testSearchInstruments_FollowsUpdates() {
+        String createdId = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "name": "Zebra Widgets",
+                            "type": "STOCK",
+                            "symbol": "ZBRW",
+                            "price": 12.50
+                        }
+                        """)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("data.id");
+
+        given().queryParam("q", "zebra").when().get("/search")
+                .then().statusCode(200).body("data.id", contains(createdId));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "name": "Quokka Widgets"
+                        }
+                        """)
+                .when()
+                .put("/" + createdId)
+                .then()
+                .statusCode(200);
+
+        given().queryParam("q", "zebra").when().get("/search")
+                .then().statusCode(200).body("data", empty());
+        given().queryParam("q", "quokka widg").when().get("/search")
+                .then().statusCode(200).body("data.id", contains(createdId));
+
+        given().when().delete("/" + createdId).then().statusCode(200);
+
+        given().queryParam("q", "quokka").when().get("/search")
+                .then().statusCode(200).body("data", empty());
+    }
+
+    @Test
+    @DisplayName("POST /api/instruments - Should fail when the symbol is already used")
+    void testCreateInstrument_DuplicateSymbol() {
+        String requestBody = """
+                {
+                    "name": "Apple again",
+                    "type": "STOCK",
+                    "symbol": "aapl",
+                    "price": 190.00
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("already used"));
+    }
+
     @Test
     @DisplayName("POST /api/instruments - Should create new instrument")
     @Story("Create New Instrument")
@@ -204,6 +603,40 @@ class InstrumentApiTest {
                 .body("success", equalTo(false));
     }
 
+    @Test
+    @DisplayName("GET /api/instruments/stream - Should push the current price and then each price change")
+    void testStreamPrices() {
+        String instrumentId = "11111111-aaaa-bbbb-cccc-000000000006";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/instruments/stream?symbol=spx500"))
+                .header("Accept", "text/event-stream")
+                .build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                    .send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> events = lines.filter(line -> line.startsWith("data:")).iterator();
+                assertThat(events.next(), allOf(containsString("\"symbol\":\"SPX500\""), containsString(instrumentId)));
+
+                given()
+                        .contentType(ContentType.JSON)
+                        .body("""
+                                {
+                                    "price": 4900.5
+                                }
+                                """)
+                        .when()
+                        .put("/" + instrumentId)
+                        .then()
+                        .statusCode(200);
+
+                assertThat(events.next(), containsString("\"price\":4900.5"));
+            }
+        });
+    }
+
     @Test
     @DisplayName("DELETE /api/instruments/{id} - Should delete instrument")
     void testDeleteInstrument() {
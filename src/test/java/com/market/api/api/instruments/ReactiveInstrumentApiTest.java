@@ -0,0 +1,31 @@
+package com.market.api.api.instruments;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Runs every {@link InstrumentApiTest} test against the reactive stack. The web application type is set here as well as by
+ * the profile, as the test context settles on its type before profiles are read.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@DisplayName("Instrument API Tests (reactive)")
+class ReactiveInstrumentApiTest extends InstrumentApiTest {
+
+    @Autowired
+    private WebServerApplicationContext context;
+
+    @Test
+    @DisplayName("Should be served by Netty")
+    void testServedByNetty() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+    }
+}
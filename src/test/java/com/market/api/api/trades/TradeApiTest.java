@@ -1,15 +1,35 @@
 package com.market.api.api.trades;
 
+import com.market.api.service.TradeService;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * API tests for Trade endpoints using RestAssured
@@ -85,7 +105,7 @@ class TradeApiTest {
     void testCreateTrade() {
         String requestBody = """
                 {
-                    "userId": "22222222-aaaa-bbbb-cccc-000000000001",
+                    "userId": "22222222-aaaa-bbbb-cccc-000000000003",
                     "instrumentId": "11111111-aaaa-bbbb-cccc-000000000003",
                     "quantity": 5,
                     "side": "BUY"
@@ -102,13 +122,65 @@ class TradeApiTest {
                 .body("success", equalTo(true))
                 .body("message", containsString("created"))
                 .body("data.id", notNullValue())
-                .body("data.userId", equalTo("22222222-aaaa-bbbb-cccc-000000000001"))
+                .body("data.userId", equalTo("22222222-aaaa-bbbb-cccc-000000000003"))
                 .body("data.instrumentId", equalTo("11111111-aaaa-bbbb-cccc-000000000003"))
                 .body("data.quantity", equalTo(5))
                 .body("data.side", equalTo("BUY"))
                 .body("data.timestamp", notNullValue());
     }
 
+    @Test
+    @DisplayName("POST /api/trades - Should report stage timings in Server-Timing when asked")
+    void testCreateTrade_ServerTiming() {
+        String requestBody = """
+                {
+                    "userId": "22222222-aaaa-bbbb-cccc-000000000003",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000003",
+                    "quantity": 1,
+                    "side": "SELL"
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("X-Server-Timing", "1")
+                .body(requestBody)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .body("data.quantity", equalTo(1))
+                .header("Server-Timing", allOf(
+                        containsString("validation;dur="),
+                        containsString("lookup;dur="),
+                        containsString("mapping;dur="),
+                        containsString("save;dur="),
+                        containsString("response;dur="),
+                        containsString("total;dur=")));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades - Should not send Server-Timing unless asked")
+    void testCreateTrade_NoServerTiming() {
+        String requestBody = """
+                {
+                    "userId": "22222222-aaaa-bbbb-cccc-000000000003",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000003",
+                    "quantity": 1,
+                    "side": "SELL"
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post()
+                .then()
+                .statusCode(201)
+                .header("Server-Timing", nullValue());
+    }
+
     @Test
     @DisplayName("POST /api/trades - Should fail with non-existent user")
     void testCreateTrade_InvalidUser() {
@@ -196,6 +268,86 @@ class TradeApiTest {
                 .body("success", equalTo(false));
     }
 
+    @Test
+    @DisplayName("POST /api/trades - Should debit the balance on BUY and credit it on SELL")
+    void testCreateTrade_SettlesBalance() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000006";
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004",
+                    "quantity": 10,
+                    "side": "%s"
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody.formatted(userId, "BUY"))
+                .when()
+                .post()
+                .then()
+                .statusCode(201);
+        assertBalance(userId, 43107.05f);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody.formatted(userId, "SELL"))
+                .when()
+                .post()
+                .then()
+                .statusCode(201);
+        assertBalance(userId, 45000.25f);
+    }
+
+    @Test
+    @DisplayName("POST /api/trades - Should reject a BUY the balance cannot cover")
+    void testCreateTrade_InsufficientFunds() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000007";
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000002",
+                    "quantity": 1,
+                    "side": "BUY"
+                }
+                """.formatted(userId);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("Insufficient funds"));
+        assertBalance(userId, 30000.00f);
+    }
+
+    @Test
+    @DisplayName("POST /api/trades - Should reject trades on an instrument without a valid price")
+    void testCreateTrade_InvalidPrice() {
+        String requestBody = """
+                {
+                    "userId": "22222222-aaaa-bbbb-cccc-000000000003",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000010",
+                    "quantity": 1,
+                    "side": "BUY"
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("no valid price"));
+    }
+
     @Test
     @DisplayName("GET /api/trades - Should return trades with both BUY and SELL sides")
     void testGetAllTrades_VerifyTradeSides() {
@@ -207,4 +359,454 @@ class TradeApiTest {
                 .statusCode(200)
                 .body("data.side", hasItems("BUY", "SELL"));
     }
+
+    @Test
+    @DisplayName("GET /api/trades?limit= - Should page through trades with an opaque cursor")
+    void testGetTrades_CursorPagination() {
+        Response firstPage = given()
+                .contentType(ContentType.JSON)
+                .queryParam("limit", 2)
+                .when()
+                .get();
+
+        firstPage.then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(2))
+                .header("X-Next-Cursor", notNullValue());
+
+        List<String> firstIds = firstPage.path("data.id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("limit", 2)
+                .queryParam("after", firstPage.getHeader("X-Next-Cursor"))
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(2))
+                .body("data.id", not(hasItems(firstIds.toArray(new String[0]))));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?after= - Should fail with malformed cursor")
+    void testGetTrades_InvalidCursor() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("after", "not-a-cursor")
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?limit= - Should fail with out-of-range limit")
+    void testGetTrades_InvalidLimit() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("limit", 0)
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades (NDJSON) - Should stream one trade per line")
+    void testStreamTrades_Ndjson() {
+        String body = given()
+                .accept("application/x-ndjson")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .extract()
+                .asString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, greaterThanOrEqualTo(10));
+        assertThat(lines[0], containsString("\"userId\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?from=&to= - Should return only trades in the time range")
+    void testGetTrades_TimeRange() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("from", "2024-01-16T00:00:00")
+                .queryParam("to", "2024-01-17T00:00:00")
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(3))
+                .body("data.timestamp", everyItem(startsWith("2024-01-16")))
+                .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?from=&to=&limit= - Should paginate within the time range")
+    void testGetTrades_TimeRangePagination() {
+        String cursor = given()
+                .contentType(ContentType.JSON)
+                .queryParam("from", "2024-01-15T00:00:00")
+                .queryParam("to", "2024-01-16T00:00:00")
+                .queryParam("limit", 5)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(5))
+                .extract()
+                .header("X-Next-Cursor");
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("from", "2024-01-15T00:00:00")
+                .queryParam("to", "2024-01-16T00:00:00")
+                .queryParam("limit", 5)
+                .queryParam("after", cursor)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(2))
+                .body("data[0].timestamp", equalTo("2024-01-15T15:10:00"))
+                .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?from=&to= - Should fail with inverted time range")
+    void testGetTrades_InvertedTimeRange() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("from", "2024-01-16T00:00:00")
+                .queryParam("to", "2024-01-15T00:00:00")
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades?from= - Should fail with malformed timestamp")
+    void testGetTrades_MalformedTimestamp() {
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("from", "yesterday")
+                .when()
+                .get()
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("from"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch - Should create valid items and reject invalid ones individually")
+    void testCreateTradesBatch() {
+        String requestBody = """
+                [
+                    {
+                        "userId": "22222222-aaaa-bbbb-cccc-000000000002",
+                        "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004",
+                        "quantity": 3,
+                        "side": "BUY"
+                    },
+                    {
+                        "userId": "99999999-aaaa-bbbb-cccc-000000000000",
+                        "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004",
+                        "quantity": 3,
+                        "side": "BUY"
+                    },
+                    {
+                        "userId": "22222222-aaaa-bbbb-cccc-000000000002",
+                        "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004",
+                        "side": "SELL"
+                    }
+                ]
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("message", containsString("1 created, 2 rejected"))
+                .body("data", hasSize(3))
+                .body("data[0].success", equalTo(true))
+                .body("data[0].trade.id", notNullValue())
+                .body("data[0].trade.quantity", equalTo(3))
+                .body("data[1].success", equalTo(false))
+                .body("data[1].error", containsString("User not found"))
+                .body("data[2].index", equalTo(2))
+                .body("data[2].success", equalTo(false))
+                .body("data[2].error", containsString("quantity"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch - Should settle items in order against the running balance")
+    void testCreateTradesBatch_InsufficientFunds() {
+        // Starts at -1000; the SELL funds the first BUY but not the second
+        String requestBody = """
+                [
+                    {"userId": "22222222-aaaa-bbbb-cccc-000000000008", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004", "quantity": 10, "side": "SELL"},
+                    {"userId": "22222222-aaaa-bbbb-cccc-000000000008", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004", "quantity": 3, "side": "BUY"},
+                    {"userId": "22222222-aaaa-bbbb-cccc-000000000008", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000004", "quantity": 3, "side": "BUY"}
+                ]
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("message", containsString("2 created, 1 rejected"))
+                .body("data[0].success", equalTo(true))
+                .body("data[1].success", equalTo(true))
+                .body("data[2].success", equalTo(false))
+                .body("data[2].error", containsString("Insufficient funds"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch (NDJSON) - Should create one trade per line")
+    void testCreateTradesBatch_Ndjson() {
+        String requestBody = """
+                {"userId": "22222222-aaaa-bbbb-cccc-000000000003", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 1000, "side": "BUY"}
+                {"userId": "22222222-aaaa-bbbb-cccc-000000000003", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 500, "side": "SELL"}
+                """;
+
+        given()
+                .contentType("application/x-ndjson")
+                .body(requestBody.getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(2))
+                .body("data.success", everyItem(equalTo(true)))
+                .body("data[1].trade.side", equalTo("SELL"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch (NDJSON) - Should fail with malformed body")
+    void testCreateTradesBatch_MalformedNdjson() {
+        given()
+                .contentType("application/x-ndjson")
+                .body("{\"userId\": ".getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("Malformed"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch (NDJSON) - Should reject a batch over the size limit")
+    void testCreateTradesBatch_NdjsonTooLarge() {
+        String line = "{\"userId\": \"22222222-aaaa-bbbb-cccc-000000000003\", "
+                + "\"instrumentId\": \"11111111-aaaa-bbbb-cccc-000000000001\", \"quantity\": 1, \"side\": \"SELL\"}\n";
+
+        given()
+                .contentType("application/x-ndjson")
+                .body(line.repeat(TradeService.MAX_BATCH_SIZE + 1).getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("must not exceed " + TradeService.MAX_BATCH_SIZE));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades - Should gzip a large page for clients accepting it")
+    void testGetTrades_Compressed() {
+        // Enough trades that the page is past the 2KB threshold whatever ran before
+        String trade = """
+                {"userId": "22222222-aaaa-bbbb-cccc-000000000005", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 1, "side": "SELL"}
+                """;
+        given()
+                .contentType("application/x-ndjson")
+                .body(trade.repeat(20).getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .queryParam("limit", 100)
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", equalTo("gzip"))
+                .header("Vary", containsString("Accept-Encoding"))
+                .body("success", equalTo(true))
+                .body("data", not(empty()));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades/{id} - Should send a body below the size threshold uncompressed")
+    void testGetTradeById_BelowCompressionThreshold() {
+        given()
+                .header("Accept-Encoding", "gzip")
+                .when()
+                .get("/33333333-aaaa-bbbb-cccc-000000000001")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .header("Content-Length", notNullValue())
+                .header("Vary", containsString("Accept-Encoding"));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades (NDJSON) - Should end a compressed stream once every trade is written")
+    void testStreamTrades_NdjsonCompressed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/trades"))
+                .header("Accept", "application/x-ndjson")
+                .header("Accept-Encoding", "gzip")
+                .build();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            String[] lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertThat(lines.length, greaterThanOrEqualTo(10));
+            assertThat(lines[lines.length - 1], endsWith("}"));
+        }
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch - Should accept a gzip-compressed body")
+    void testCreateTradesBatch_GzipBody() throws IOException {
+        String requestBody = """
+                [
+                    {"userId": "22222222-aaaa-bbbb-cccc-000000000005", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 100, "side": "BUY"},
+                    {"userId": "22222222-aaaa-bbbb-cccc-000000000005", "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 100, "side": "SELL"}
+                ]
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Content-Encoding", "gzip")
+                .body(gzip(requestBody))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("message", containsString("2 created, 0 rejected"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch - Should fail with a corrupt compressed body")
+    void testCreateTradesBatch_CorruptGzipBody() {
+        given()
+                .contentType(ContentType.JSON)
+                .header("Content-Encoding", "gzip")
+                .body("[]".getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", containsString("Malformed gzip request body"));
+    }
+
+    @Test
+    @DisplayName("POST /api/trades/batch - Should reject an unsupported Content-Encoding with 415")
+    void testCreateTradesBatch_UnsupportedEncoding() {
+        given()
+                .contentType(ContentType.JSON)
+                .header("Content-Encoding", "br")
+                .body("[]".getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(415)
+                .header("Accept-Encoding", containsString("gzip"))
+                .body("success", equalTo(false))
+                .body("message", containsString("Content-Encoding 'br'"));
+    }
+
+    @Test
+    @DisplayName("GET /api/trades/stream - Should push created trades matching the filters")
+    void testStreamTrades() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000004";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/trades/stream?userId=" + userId + "&side=SELL"))
+                .header("Accept", "text/event-stream")
+                .build();
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "instrumentId": "11111111-aaaa-bbbb-cccc-000000000005",
+                    "quantity": %d,
+                    "side": "%s"
+                }
+                """;
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                    .send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+
+            try (Stream<String> lines = response.body()) {
+                // Filtered out by side
+                given()
+                        .contentType(ContentType.JSON)
+                        .body(requestBody.formatted(userId, 1, "BUY"))
+                        .when()
+                        .post()
+                        .then()
+                        .statusCode(201);
+                String tradeId = given()
+                        .contentType(ContentType.JSON)
+                        .body(requestBody.formatted(userId, 2, "SELL"))
+                        .when()
+                        .post()
+                        .then()
+                        .statusCode(201)
+                        .extract()
+                        .path("data.id");
+
+                Iterator<String> events = lines.filter(line -> line.startsWith("data:")).iterator();
+                assertThat(events.next(), allOf(containsString(tradeId), containsString("\"side\":\"SELL\"")));
+            }
+        });
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void assertBalance(String userId, float balance) {
+        given()
+                .basePath("/api/users")
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + userId)
+                .then()
+                .statusCode(200)
+                .body("data.balance", equalTo(balance));
+    }
 }
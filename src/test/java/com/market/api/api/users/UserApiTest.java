@@ -2,6 +2,7 @@ package com.market.api.api.users;
 
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * API tests for User endpoints using RestAssured
@@ -62,6 +64,61 @@ class UserApiTest {
                 .body("data.balance", equalTo(50000.00f));
     }
 
+    @Test
+    @DisplayName("GET /api/users/{id} - Should answer a matching If-None-Match with 304 and no body")
+    void testGetUserById_NotModified() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000002";
+
+        Response first = given()
+                .when()
+                .get("/" + userId)
+                .then()
+                .statusCode(200)
+                .header("ETag", matchesPattern("\"[0-9a-f]+\""))
+                .extract()
+                .response();
+        String etag = first.header("ETag");
+        assertEquals(1, first.headers().getValues("ETag").size());
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/" + userId)
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(etag))
+                .body(emptyString());
+
+        given()
+                .header("If-None-Match", "\"0\"")
+                .when()
+                .get("/" + userId)
+                .then()
+                .statusCode(200)
+                .header("ETag", equalTo(etag))
+                .body("data.id", equalTo(userId));
+    }
+
+    @Test
+    @DisplayName("GET /api/users - Should answer a matching If-None-Match with 304")
+    void testGetAllUsers_NotModified() {
+        String etag = given()
+                .when()
+                .get()
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get()
+                .then()
+                .statusCode(304)
+                .body(emptyString());
+    }
+
     @Test
     @DisplayName("GET /api/users/{id} - Should return 404 for non-existent user")
     void testGetUserById_NotFound() {
@@ -88,4 +145,113 @@ class UserApiTest {
                 .statusCode(200)
                 .body("data.country", hasItems("US", "BR", "CN", "GB"));
     }
+
+    @Test
+    @DisplayName("GET /api/users/{id}/trades - Should return only the user's trades")
+    void testGetUserTrades() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000001";
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + userId + "/trades")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data", hasSize(greaterThanOrEqualTo(2)))
+                .body("data.userId", everyItem(equalTo(userId)));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id}/trades - Should return 404 for non-existent user")
+    void testGetUserTrades_NotFound() {
+        String nonExistentId = "99999999-aaaa-bbbb-cccc-000000000000";
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + nonExistentId + "/trades")
+                .then()
+                .statusCode(404)
+                .body("success", equalTo(false))
+                .body("message", containsString("not found"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id}/positions - Should net buys and sells and average the fill prices")
+    void testGetUserPositions() {
+        String userId = "22222222-aaaa-bbbb-cccc-000000000005";
+        String instrumentId = "11111111-aaaa-bbbb-cccc-000000000007";
+        String position = "data.find { it.instrumentId == '" + instrumentId + "' }";
+
+        createTrade(userId, instrumentId, 10, "BUY");
+        given()
+                .basePath("/api/instruments")
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "price": 2055.33
+                        }
+                        """)
+                .when()
+                .put("/" + instrumentId)
+                .then()
+                .statusCode(200);
+        createTrade(userId, instrumentId, 10, "BUY");
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + userId + "/positions")
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body(position + ".quantity", equalTo(20))
+                .body(position + ".averagePrice", equalTo(2050.33f));
+
+        // Selling through zero opens a short at the fill price
+        createTrade(userId, instrumentId, 25, "SELL");
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + userId + "/positions")
+                .then()
+                .statusCode(200)
+                .body(position + ".quantity", equalTo(-5))
+                .body(position + ".averagePrice", equalTo(2055.33f));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id}/positions - Should return 404 for non-existent user")
+    void testGetUserPositions_NotFound() {
+        String nonExistentId = "99999999-aaaa-bbbb-cccc-000000000000";
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/" + nonExistentId + "/positions")
+                .then()
+                .statusCode(404)
+                .body("success", equalTo(false))
+                .body("message", containsString("not found"));
+    }
+
+    private void createTrade(String userId, String instrumentId, int quantity, String side) {
+        given()
+                .basePath("/api/trades")
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "userId": "%s",
+                            "instrumentId": "%s",
+                            "quantity": %d,
+                            "side": "%s"
+                        }
+                        """.formatted(userId, instrumentId, quantity, side))
+                .when()
+                .post()
+                .then()
+                .statusCode(201);
+    }
 }
@@ -0,0 +1,45 @@
+package com.market.api.compression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.market.api.compression.ContentCoding.GZIP;
+import static com.market.api.compression.ContentCoding.ZSTD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@code Accept-Encoding} negotiation
+ */
+@DisplayName("Content Coding Tests")
+class ContentCodingTest {
+
+    private static final List<ContentCoding> OFFERED = List.of(ZSTD, GZIP);
+
+    @Test
+    @DisplayName("Should prefer the earlier offered coding when the client weighs them equally")
+    void testServerPreference() {
+        assertEquals(ZSTD, ContentCoding.negotiate("gzip, deflate, br, zstd", OFFERED));
+        assertEquals(GZIP, ContentCoding.negotiate("gzip, deflate", OFFERED));
+        assertEquals(ZSTD, ContentCoding.negotiate("*", OFFERED));
+    }
+
+    @Test
+    @DisplayName("Should follow the client's quality values, where q=0 rules a coding out")
+    void testQualityValues() {
+        assertEquals(GZIP, ContentCoding.negotiate("zstd;q=0.5, gzip", OFFERED));
+        assertEquals(GZIP, ContentCoding.negotiate("*, zstd;q=0", OFFERED));
+        assertEquals(ZSTD, ContentCoding.negotiate("GZIP;Q=0.1, ZSTD", OFFERED));
+    }
+
+    @Test
+    @DisplayName("Should choose nothing when the client accepts none of the offered codings")
+    void testNoneAcceptable() {
+        assertNull(ContentCoding.negotiate(null, OFFERED));
+        assertNull(ContentCoding.negotiate("identity", OFFERED));
+        assertNull(ContentCoding.negotiate("gzip;q=0, *;q=0", OFFERED));
+        assertNull(ContentCoding.negotiate("zstd", List.of(GZIP)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.market.api.persistence;
+
+import com.market.api.MarketInstrumentsApiApplication;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restart tests for the journal: writes made through the API must survive a restart
+ */
+@DisplayName("Journal Recovery Tests")
+class JournalRecoveryTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Trades and instrument changes should be replayed from the journal after a restart")
+    void testRecoverFromJournal() {
+        start("write");
+
+        String tradeId = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "userId": "22222222-aaaa-bbbb-cccc-000000000004",
+                            "instrumentId": "11111111-aaaa-bbbb-cccc-000000000005",
+                            "quantity": 7,
+                            "side": "SELL"
+                        }
+                        """)
+                .when()
+                .post("/api/trades")
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("data.id");
+
+        given()
+                .when()
+                .delete("/api/instruments/11111111-aaaa-bbbb-cccc-000000000009")
+                .then()
+                .statusCode(200);
+
+        restart("batch");
+
+        given()
+                .when()
+                .get("/api/trades/" + tradeId)
+                .then()
+                .statusCode(200)
+                .body("data.quantity", equalTo(7))
+                .body("data.side", equalTo("SELL"));
+
+        given()
+                .when()
+                .get("/api/instruments/11111111-aaaa-bbbb-cccc-000000000009")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    @DisplayName("State should be recovered from the snapshot written at shutdown plus later journal segments")
+    void testRecoverFromSnapshotAndJournal() {
+        start("interval");
+
+        String firstTradeId = createTrade(3);
+        restart("batch");
+
+        assertTrue(Files.exists(dataDirectory.resolve(PersistenceManager.SNAPSHOT_FILE)));
+        String secondTradeId = createTrade(4);
+        restart("batch");
+
+        given()
+                .when()
+                .get("/api/trades/" + firstTradeId)
+                .then()
+                .statusCode(200)
+                .body("data.quantity", equalTo(3));
+
+        given()
+                .when()
+                .get("/api/trades/" + secondTradeId)
+                .then()
+                .statusCode(200)
+                .body("data.quantity", equalTo(4));
+
+        given()
+                .when()
+                .get("/api/users/22222222-aaaa-bbbb-cccc-000000000005/trades")
+                .then()
+                .statusCode(200)
+                .body("data.id", hasItems(firstTradeId, secondTradeId));
+    }
+
+    private String createTrade(int quantity) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                            "userId": "22222222-aaaa-bbbb-cccc-000000000005",
+                            "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001",
+                            "quantity": %d,
+                            "side": "BUY"
+                        }
+                        """.formatted(quantity))
+                .when()
+                .post("/api/trades")
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("data.id");
+    }
+
+    private void restart(String fsyncPolicy) {
+        context.close();
+        start(fsyncPolicy);
+    }
+
+    private void start(String fsyncPolicy) {
+        context = new SpringApplicationBuilder(MarketInstrumentsApiApplication.class)
+                .run("--server.port=0",
+                        "--market.persistence.enabled=true",
+                        "--market.persistence.directory=" + dataDirectory,
+                        "--market.persistence.fsync-policy=" + fsyncPolicy,
+                        "--market.persistence.fsync-interval=50ms");
+        RestAssured.port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        RestAssured.basePath = "";
+    }
+}
@@ -0,0 +1,86 @@
+package com.market.api.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for streaming seed files from the classpath and the file system
+ */
+@DisplayName("JSON Seed Reader Tests")
+class JsonSeedReaderTest {
+
+    private static final String TRADES = """
+            [
+              {"id": "33333333-aaaa-bbbb-cccc-00000000aaa1", "userId": "22222222-aaaa-bbbb-cccc-000000000001",
+               "instrumentId": "11111111-aaaa-bbbb-cccc-000000000001", "quantity": 5, "side": "SELL",
+               "timestamp": "2024-02-01T09:00:00"},
+              {"id": "33333333-aaaa-bbbb-cccc-00000000aaa2", "userId": "22222222-aaaa-bbbb-cccc-000000000002",
+               "instrumentId": "11111111-aaaa-bbbb-cccc-000000000002", "quantity": 6, "side": "BUY",
+               "timestamp": "2024-02-01T09:05:00"}
+            ]
+            """;
+
+    private final JsonSeedReader reader = new JsonSeedReader(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should stream the bundled classpath mock data")
+    void testReadClasspath() throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        long count = reader.read("classpath:mockdata/trades.json", Trade.class, trades::add);
+
+        assertEquals(10, count);
+        assertEquals(10, trades.size());
+    }
+
+    @Test
+    @DisplayName("Should stream a gzipped file given as a plain path")
+    void testReadGzipFile() throws IOException {
+        Path file = directory.resolve("trades.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(TRADES.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Trade> trades = new ArrayList<>();
+        long count = reader.read(file.toString(), Trade.class, trades::add);
+
+        assertEquals(2, count);
+        assertEquals(TradeSide.SELL, trades.get(0).getSide());
+        assertEquals(6, trades.get(1).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should fail for a .gz file that is not gzipped")
+    void testReadCorruptGzipFile() throws IOException {
+        Path file = directory.resolve("trades.json.gz");
+        Files.writeString(file, TRADES);
+
+        assertThrows(IOException.class, () -> reader.read(file.toString(), Trade.class, trade -> { }));
+    }
+
+    @Test
+    @DisplayName("Should fail for a missing seed file")
+    void testReadMissingFile() {
+        assertThrows(IOException.class,
+                () -> reader.read(directory.resolve("missing.json").toString(), Trade.class, trade -> { }));
+    }
+}
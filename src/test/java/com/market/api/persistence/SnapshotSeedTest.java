@@ -0,0 +1,96 @@
+package com.market.api.persistence;
+
+import com.market.api.MarketInstrumentsApiApplication;
+import com.market.api.model.Trade;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the binary snapshot format and seeding the repositories from it
+ */
+@DisplayName("Binary Snapshot Seed Tests")
+class SnapshotSeedTest {
+
+    @TempDir
+    Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Converted mock data should round-trip through the binary snapshot")
+    void testConvertMockData() throws Exception {
+        Path snapshot = directory.resolve("seed.bin");
+        SnapshotConverter.convert(null, null, null, snapshot);
+
+        List<Trade> trades = new ArrayList<>();
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot)) {
+            assertEquals(10, reader.readInstruments(instrument -> { }));
+            assertEquals(8, reader.readUsers(user -> { }));
+            reader.readTrades(trades::add);
+            assertEquals(0, reader.getReplayFrom());
+        }
+
+        Trade first = trades.get(0);
+        assertEquals(UUID.fromString("33333333-aaaa-bbbb-cccc-000000000001"), first.getId());
+        assertEquals(2, first.getQuantity());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), first.getTimestamp());
+        assertEquals(10, trades.size());
+    }
+
+    @Test
+    @DisplayName("The API should serve data seeded from a binary snapshot")
+    void testSeedFromSnapshot() throws Exception {
+        Path snapshot = directory.resolve("seed.bin");
+        SnapshotConverter.convert(null, null, null, snapshot);
+
+        context = new SpringApplicationBuilder(MarketInstrumentsApiApplication.class)
+                .run("--server.port=0", "--market.seed.snapshot=" + snapshot);
+        RestAssured.port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        RestAssured.basePath = "";
+
+        given()
+                .when()
+                .get("/api/instruments/11111111-aaaa-bbbb-cccc-000000000004")
+                .then()
+                .statusCode(200)
+                .body("data.symbol", equalTo("AAPL"));
+
+        given()
+                .when()
+                .get("/api/users/22222222-aaaa-bbbb-cccc-000000000001")
+                .then()
+                .statusCode(200)
+                .body("data.balance", notNullValue());
+
+        given()
+                .when()
+                .get("/api/trades")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(10))
+                .body("data[0].id", equalTo("33333333-aaaa-bbbb-cccc-000000000001"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.market.api.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.market.api.model.Trade;
+import com.market.api.model.TradeSide;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.PersistenceProperties;
+import com.market.api.persistence.SeedProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the columnar trade store against the map-backed store on the same writes
+ */
+@DisplayName("Columnar Trade Repository Tests")
+class ColumnarTradeRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final List<UUID> USERS = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    private static final List<UUID> INSTRUMENTS = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+    private ColumnarTradeRepository columnar;
+    private MapTradeRepository map;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Journal journal = new Journal(new PersistenceProperties(), objectMapper);
+        SeedProperties seedProperties = new SeedProperties();
+        JsonSeedReader seedReader = new JsonSeedReader(objectMapper);
+        columnar = new ColumnarTradeRepository(journal, seedProperties, seedReader);
+        map = new MapTradeRepository(journal, seedProperties, seedReader);
+    }
+
+    @Test
+    @DisplayName("Should page, range-scan and filter like the map store after out-of-order writes")
+    void testMatchesMapStore() {
+        Random random = new Random(42);
+        List<Trade> written = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Trade trade = randomTrade(random);
+            written.add(trade);
+            save(trade);
+        }
+        // Replace some trades, moving them in time and between owners
+        for (int i = 0; i < 200; i++) {
+            Trade replacement = randomTrade(random);
+            replacement.setId(written.get(random.nextInt(written.size())).getId());
+            save(replacement);
+        }
+
+        assertEquals(map.count(), columnar.count());
+        assertEquals(ids(map.findPage(null, 100_000)), ids(columnar.findPage(null, 100_000)));
+        assertEquals(ids(map.streamAll().collect(Collectors.toList())), ids(columnar.streamAll().collect(Collectors.toList())));
+
+        LocalDateTime from = START.plusMinutes(500);
+        LocalDateTime to = START.plusMinutes(1500);
+        assertEquals(ids(map.findPageInRange(from, to, null, 100_000)), ids(columnar.findPageInRange(from, to, null, 100_000)));
+
+        for (UUID user : USERS) {
+            assertEquals(ids(map.findPageByUserId(user, null, 100_000)), ids(columnar.findPageByUserId(user, null, 100_000)));
+        }
+        for (UUID instrument : INSTRUMENTS) {
+            assertEquals(ids(map.findPageByInstrumentId(instrument, null, 100_000)),
+                    ids(columnar.findPageByInstrumentId(instrument, null, 100_000)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue a page from a cursor")
+    void testCursorPagination() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            save(randomTrade(random));
+        }
+
+        List<UUID> paged = new ArrayList<>();
+        TradeCursor cursor = null;
+        List<Trade> page;
+        do {
+            page = columnar.findPage(cursor, 64);
+            paged.addAll(ids(page));
+            cursor = page.isEmpty() ? null : TradeRepository.cursorOf(page.get(page.size() - 1));
+        } while (page.size() == 64);
+
+        assertEquals(ids(map.findPage(null, 100_000)), paged);
+    }
+
+    @Test
+    @DisplayName("Should round-trip every field, including missing ones")
+    void testRoundTrip() {
+        Trade trade = Trade.builder()
+                .id(UUID.randomUUID())
+                .userId(USERS.get(0))
+                .instrumentId(null)
+                .quantity(null)
+                .side(TradeSide.SELL)
+                .timestamp(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_000))
+                .build();
+        columnar.save(trade);
+
+        Trade found = columnar.findById(trade.getId()).orElseThrow();
+        assertEquals(trade, found);
+        assertTrue(columnar.existsById(trade.getId()));
+        assertFalse(columnar.existsById(UUID.randomUUID()));
+
+        columnar.clear();
+        assertEquals(0, columnar.count());
+        assertTrue(columnar.findById(trade.getId()).isEmpty());
+    }
+
+    private void save(Trade trade) {
+        columnar.save(copy(trade));
+        map.save(copy(trade));
+    }
+
+    private static Trade randomTrade(Random random) {
+        return Trade.builder()
+                .id(new UUID(random.nextLong(), random.nextLong()))
+                .userId(USERS.get(random.nextInt(USERS.size())))
+                .instrumentId(INSTRUMENTS.get(random.nextInt(INSTRUMENTS.size())))
+                .quantity(1 + random.nextInt(1000))
+                .side(random.nextBoolean() ? TradeSide.BUY : TradeSide.SELL)
+                // Coarse timestamps so that many trades share one and the id breaks the tie
+                .timestamp(START.plusMinutes(random.nextInt(2_000)))
+                .build();
+    }
+
+    private static Trade copy(Trade trade) {
+        return Trade.builder()
+                .id(trade.getId())
+                .userId(trade.getUserId())
+                .instrumentId(trade.getInstrumentId())
+                .quantity(trade.getQuantity())
+                .side(trade.getSide())
+                .timestamp(trade.getTimestamp())
+                .build();
+    }
+
+    private static List<UUID> ids(List<Trade> trades) {
+        return trades.stream().map(Trade::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package com.market.api.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ranking and maintenance of the instrument type-ahead index
+ */
+@DisplayName("Instrument Search Index Tests")
+class InstrumentSearchIndexTest {
+
+    private static final UUID GOLD = new UUID(0, 1);
+    private static final UUID GOLDMAN = new UUID(0, 2);
+    private static final UUID GOLD_MINERS = new UUID(0, 3);
+
+    private InstrumentSearchIndex index() {
+        InstrumentSearchIndex index = new InstrumentSearchIndex();
+        index.update(GOLD, null, null, "GOLD", "Gold Spot");
+        index.update(GOLDMAN, null, null, "GS", "Goldman Sachs");
+        index.update(GOLD_MINERS, null, null, "GDX", "Gold Miners ETF");
+        return index;
+    }
+
+    @Test
+    @DisplayName("Should rank the exact symbol first, then exact name words, then longer words")
+    void testRanking() {
+        assertEquals(List.of(GOLD, GOLD_MINERS, GOLDMAN), index().search("gold", 10));
+    }
+
+    @Test
+    @DisplayName("Should require every query word and respect the limit")
+    void testWordsAndLimit() {
+        InstrumentSearchIndex index = index();
+
+        assertEquals(List.of(GOLD_MINERS), index.search("gold min", 10));
+        assertEquals(List.of(GOLDMAN), index.search("SACHS gold", 10));
+        assertEquals(1, index.search("gold", 1).size());
+        assertTrue(index.search("gold silver", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fall back to near misses only when nothing starts with the word")
+    void testFuzzy() {
+        InstrumentSearchIndex index = index();
+
+        assertEquals(List.of(GOLD_MINERS), index.search("minrs", 10));
+        assertEquals(List.of(GOLDMAN), index.search("goldmen", 10));
+        // A typo in the first character is not corrected
+        assertTrue(index.search("sold", 10).isEmpty());
+        // Nor are words too short to tell a typo from a different word
+        assertTrue(index.search("gx", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop the terms an update or removal takes away, keeping the shared ones")
+    void testUpdateAndRemove() {
+        InstrumentSearchIndex index = index();
+
+        index.update(GOLD_MINERS, "GDX", "Gold Miners ETF", "GDXJ", "Gold Juniors ETF");
+        assertEquals(List.of(GOLD_MINERS), index.search("juniors", 10));
+        assertEquals(List.of(GOLD_MINERS), index.search("gdx", 10));
+        assertTrue(index.search("miners", 10).isEmpty());
+        assertTrue(index.search("gold", 10).contains(GOLD_MINERS));
+
+        index.update(GOLD_MINERS, "GDXJ", "Gold Juniors ETF", null, null);
+        assertTrue(index.search("gdx", 10).isEmpty());
+        assertEquals(List.of(GOLD, GOLDMAN), index.search("gold", 10));
+    }
+}
@@ -0,0 +1,100 @@
+package com.market.api.repository;
+
+import com.market.api.MarketInstrumentsApiApplication;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Startup tests for loading the repositories, including deferred trade loading
+ */
+@DisplayName("Repository Initializer Tests")
+class RepositoryInitializerTest {
+
+    private static final int TRADE_COUNT = 200_000;
+
+    @TempDir
+    Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    @DisplayName("With deferred trades, instruments are served at once and trades once loaded")
+    void testDeferTrades() throws Exception {
+        Path trades = writeTrades(directory.resolve("trades.json.gz"));
+        context = new SpringApplicationBuilder(MarketInstrumentsApiApplication.class)
+                .run("--server.port=0",
+                        "--market.seed.trades=" + trades,
+                        "--market.seed.defer-trades=true");
+        RestAssured.port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        RestAssured.basePath = "";
+
+        given()
+                .when()
+                .get("/api/instruments")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(10));
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        Response response;
+        while ((response = given().queryParam("limit", 1).when().get("/api/trades")).statusCode() == 503) {
+            assertEquals("5", response.header("Retry-After"));
+            assertTrue(System.currentTimeMillis() < deadline, "Trades did not finish loading");
+            Thread.sleep(50);
+        }
+
+        assertEquals(200, response.statusCode());
+        given()
+                .when()
+                .get("/api/users/22222222-aaaa-bbbb-cccc-000000000001/trades")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(100));
+    }
+
+    private static Path writeTrades(Path file) throws IOException {
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8)) {
+            out.write('[');
+            for (int i = 0; i < TRADE_COUNT; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(String.format("{\"id\":\"33333333-0000-0000-0000-%012d\","
+                                + "\"userId\":\"22222222-aaaa-bbbb-cccc-00000000000%d\","
+                                + "\"instrumentId\":\"11111111-aaaa-bbbb-cccc-00000000000%d\","
+                                + "\"quantity\":%d,\"side\":\"%s\",\"timestamp\":\"2024-03-01T%02d:%02d:%02d\"}",
+                        i, i % 8 + 1, i % 9 + 1, i % 100 + 1, i % 2 == 0 ? "BUY" : "SELL",
+                        i / 3600 % 24, i / 60 % 60, i % 60));
+            }
+            out.write(']');
+        }
+        return file;
+    }
+}
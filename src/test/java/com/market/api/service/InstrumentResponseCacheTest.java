@@ -0,0 +1,127 @@
+package com.market.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.market.api.model.Instrument;
+import com.market.api.model.InstrumentType;
+import com.market.api.persistence.Journal;
+import com.market.api.persistence.JsonSeedReader;
+import com.market.api.persistence.PersistenceProperties;
+import com.market.api.persistence.SeedProperties;
+import com.market.api.repository.InstrumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hits, version checks, invalidation and eviction of the serialized instrument responses
+ */
+@DisplayName("Instrument Response Cache Tests")
+class InstrumentResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger builds = new AtomicInteger();
+    private InstrumentRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InstrumentRepository(new Journal(new PersistenceProperties(), objectMapper),
+                new SeedProperties(), new JsonSeedReader(objectMapper));
+    }
+
+    private InstrumentResponseCache cache(DataSize maxSize) {
+        CacheProperties properties = new CacheProperties();
+        properties.getResponses().setMaxSize(maxSize);
+        return new InstrumentResponseCache(objectMapper, properties, repository);
+    }
+
+    private Instrument save(String symbol) {
+        return repository.save(Instrument.builder()
+                .name(symbol)
+                .type(InstrumentType.STOCK)
+                .symbol(symbol)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+
+    private String body(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("A hit at the current version should not build the body again")
+    void testHit() {
+        InstrumentResponseCache cache = cache(DataSize.ofMegabytes(1));
+        UUID id = save("AAA").getId();
+        long version = repository.version(id);
+
+        byte[] first = cache.instrument(id, version, () -> List.of(builds.incrementAndGet()));
+        byte[] second = cache.instrument(id, version, () -> List.of(builds.incrementAndGet()));
+
+        assertEquals("[1]", body(first));
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    @DisplayName("A save should drop the instrument's body and every collection, but not other instruments")
+    void testInvalidation() {
+        InstrumentResponseCache cache = cache(DataSize.ofMegabytes(1));
+        Instrument changed = save("AAA");
+        UUID other = save("BBB").getId();
+        long otherVersion = repository.version(other);
+
+        cache.instrument(changed.getId(), repository.version(changed.getId()), () -> "changed-v1");
+        cache.instrument(other, otherVersion, () -> "other");
+        cache.collection("all", repository.collectionVersion(), () -> "all-v1");
+
+        changed.setPrice(BigDecimal.ONE);
+        repository.save(changed);
+
+        assertEquals("\"changed-v2\"", body(cache.instrument(changed.getId(), repository.version(changed.getId()), () -> "changed-v2")));
+        assertEquals("\"all-v2\"", body(cache.collection("all", repository.collectionVersion(), () -> "all-v2")));
+        assertEquals("\"other\"", body(cache.instrument(other, otherVersion, () -> "rebuilt")));
+    }
+
+    @Test
+    @DisplayName("A body built for an older version should not be served at a newer one")
+    void testStaleVersion() {
+        InstrumentResponseCache cache = cache(DataSize.ofMegabytes(1));
+        UUID id = UUID.randomUUID();
+
+        cache.instrument(id, 1, () -> "old");
+
+        assertEquals("\"new\"", body(cache.instrument(id, 2, () -> "new")));
+        // Nor replace a newer one that got there first
+        cache.instrument(id, 1, () -> "old");
+        assertEquals("\"new\"", body(cache.instrument(id, 2, () -> "rebuilt")));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used bodies beyond the size limit")
+    void testEviction() {
+        InstrumentResponseCache cache = cache(DataSize.ofBytes(25));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        cache.instrument(first, 1, () -> "aaaaaaaa");
+        cache.instrument(second, 1, () -> "bbbbbbbb");
+        // Touching the first makes the second the least recently used
+        cache.instrument(first, 1, () -> "rebuilt");
+        cache.instrument(third, 1, () -> "cccccccc");
+
+        assertEquals(20, cache.size());
+        assertEquals("\"aaaaaaaa\"", body(cache.instrument(first, 1, () -> "rebuilt")));
+        assertEquals("\"rebuilt\"", body(cache.instrument(second, 1, () -> "rebuilt")));
+    }
+}
@@ -0,0 +1,109 @@
+package com.market.api.service;
+
+import com.market.api.dto.PriceUpdateDTO;
+import com.market.api.model.InstrumentType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Buffering and filtering of a single price stream subscriber
+ */
+@DisplayName("Price Subscription Tests")
+class PriceSubscriptionTest {
+
+    private static final UUID BTC = UUID.fromString("11111111-aaaa-bbbb-cccc-000000000002");
+    private static final UUID ETH = UUID.fromString("11111111-aaaa-bbbb-cccc-000000000003");
+    private static final UUID AAPL = UUID.fromString("11111111-aaaa-bbbb-cccc-000000000004");
+
+    @Test
+    @DisplayName("Undelivered updates should coalesce to the latest price per instrument")
+    void testCoalescesPerInstrument() {
+        PriceSubscription subscription = new PriceSubscription(null, Set.of(), null, 16);
+
+        assertTrue(subscription.offer(update(BTC, "BTCUSD", "43000")));
+        assertFalse(subscription.offer(update(ETH, "ETHUSD", "3200")));
+        assertFalse(subscription.offer(update(BTC, "BTCUSD", "43100")));
+
+        List<PriceUpdateDTO> updates = subscription.drain();
+        assertEquals(List.of(ETH, BTC), updates.stream().map(PriceUpdateDTO::getInstrumentId).toList());
+        assertEquals(new BigDecimal("43100"), updates.get(1).getPrice());
+
+        // The delivery ends once the buffer is empty, so the next offer schedules a new one
+        assertTrue(subscription.drain().isEmpty());
+        assertTrue(subscription.offer(update(BTC, "BTCUSD", "43200")));
+    }
+
+    @Test
+    @DisplayName("A full buffer should drop the stalest instrument")
+    void testDropsStalestWhenFull() {
+        PriceSubscription subscription = new PriceSubscription(null, Set.of(), null, 2);
+
+        subscription.offer(update(BTC, "BTCUSD", "43000"));
+        subscription.offer(update(ETH, "ETHUSD", "3200"));
+        subscription.offer(update(AAPL, "AAPL", "189"));
+
+        assertEquals(List.of(ETH, AAPL), subscription.drain().stream().map(PriceUpdateDTO::getInstrumentId).toList());
+    }
+
+    @Test
+    @DisplayName("The snapshot should never replace a price published since subscribing")
+    void testSnapshotKeepsPublishedPrice() {
+        PriceSubscription subscription = new PriceSubscription(null, Set.of(), null, 16);
+
+        assertTrue(subscription.offer(update(BTC, "BTCUSD", "43100")));
+        assertFalse(subscription.offerSnapshot(update(BTC, "BTCUSD", "43000")));
+        assertFalse(subscription.offerSnapshot(update(ETH, "ETHUSD", "3200")));
+        assertEquals(List.of(new BigDecimal("43100"), new BigDecimal("3200")),
+                subscription.drain().stream().map(PriceUpdateDTO::getPrice).toList());
+
+        // Nor once the published price has already been delivered
+        assertTrue(subscription.drain().isEmpty());
+        assertFalse(subscription.offerSnapshot(update(BTC, "BTCUSD", "43000")));
+        subscription.snapshotOffered();
+        assertTrue(subscription.drain().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Updates should match on symbol and type")
+    void testMatchesFilter() {
+        PriceSubscription bySymbol = new PriceSubscription(null, Set.of("BTCUSD"), null, 16);
+        PriceSubscription byType = new PriceSubscription(null, Set.of(), InstrumentType.STOCK, 16);
+
+        assertTrue(bySymbol.matches(update(BTC, "btcusd", "43000")));
+        assertFalse(bySymbol.matches(update(ETH, "ETHUSD", "3200")));
+        assertTrue(byType.matches(update(AAPL, "AAPL", "189")));
+        assertFalse(byType.matches(update(BTC, "BTCUSD", "43000")));
+    }
+
+    @Test
+    @DisplayName("Symbols should match whatever the default locale")
+    void testMatchesSymbolInTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            // Upper-cased in Turkish, "msci" would become "MSCİ"
+            PriceSubscription subscription = new PriceSubscription(null, Set.of("MSCI"), null, 16);
+
+            assertTrue(subscription.matches(update(UUID.randomUUID(), "msci", "420")));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static PriceUpdateDTO update(UUID instrumentId, String symbol, String price) {
+        return PriceUpdateDTO.builder()
+                .instrumentId(instrumentId)
+                .symbol(symbol)
+                .type(symbol.equals("AAPL") ? InstrumentType.STOCK : InstrumentType.CRYPTO)
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.market.api.service;
+
+import com.market.api.dto.TradeDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lag policies of a single trade tape subscriber
+ */
+@DisplayName("Tape Subscription Tests")
+class TapeSubscriptionTest {
+
+    @Test
+    @DisplayName("DROP should make room by dropping the oldest undelivered event")
+    void testDropPolicy() {
+        TapeSubscription subscription = new TapeSubscription(null, null, null, null, LagPolicy.DROP, 2);
+
+        assertEquals(TapeSubscription.Offer.SCHEDULE, subscription.offer(event(1)));
+        assertEquals(TapeSubscription.Offer.QUEUED, subscription.offer(event(2)));
+        assertEquals(TapeSubscription.Offer.DROPPED, subscription.offer(event(3)));
+
+        assertEquals(List.of(2L, 3L), subscription.drain().stream().map(TapeSubscription.Event::sequence).toList());
+    }
+
+    @Test
+    @DisplayName("DISCONNECT should refuse the event once the buffer is full")
+    void testDisconnectPolicy() {
+        TapeSubscription subscription = new TapeSubscription(null, null, null, null, LagPolicy.DISCONNECT, 2);
+
+        subscription.offer(event(1));
+        subscription.offer(event(2));
+
+        assertEquals(TapeSubscription.Offer.OVERFLOW, subscription.offer(event(3)));
+        assertEquals(2, subscription.pendingCount());
+    }
+
+    private static TapeSubscription.Event event(long sequence) {
+        return new TapeSubscription.Event(sequence, TradeDTO.builder().build());
+    }
+}
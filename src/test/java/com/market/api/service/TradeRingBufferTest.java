@@ -0,0 +1,85 @@
+package com.market.api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-producer, single-consumer behaviour of the trade tape's ring buffer
+ */
+@DisplayName("Trade Ring Buffer Tests")
+class TradeRingBufferTest {
+
+    @Test
+    @DisplayName("A full ring should reject offers until the consumer frees a slot")
+    void testRejectsWhenFull() {
+        TradeRingBuffer<Integer> ring = new TradeRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Concurrent producers should lose nothing and keep each producer's order")
+    void testConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 200_000;
+        TradeRingBuffer<long[]> ring = new TradeRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] element = {producer, i};
+                        while (!ring.offer(element)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            long[] next = new long[producers];
+            long received = 0;
+            while (received < (long) producers * perProducer) {
+                long[] element = ring.poll();
+                if (element == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                assertEquals(next[(int) element[0]]++, element[1]);
+                received++;
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertNull(ring.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}